@@ -0,0 +1,33 @@
+import java.util.function.Supplier;
+
+// Bridge between the JMH benchmarks, which have to live in a named package, and
+// the schedulers in the default package. SchedulerBenchmark looks this class up
+// reflectively once per trial; the returned task is then called directly.
+public class SchedulerRuns {
+
+    // Generates a workload and returns a task that schedules it once per call.
+    // arrivals: "dense" (mean gap half a burst, queues keep growing) or "sparse" (idle gaps).
+    // bursts:   "short" (1-10 units) or "long" (100-1000 units); quanta and aging scale with them.
+    public static Supplier<Object> prepare(String scheduler, int processes, String arrivals, String bursts,
+                                           int contextSwitch, long seed) {
+        boolean longBursts = bursts.equals("long");
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.seed = seed;
+        generator.processes = processes;
+        generator.minBurst = longBursts ? 100 : 1;
+        generator.maxBurst = longBursts ? 1000 : 10;
+        generator.meanInterarrival = (generator.minBurst + generator.maxBurst) / 2.0
+                * (arrivals.equals("dense") ? 0.5 : 2.0);
+        generator.minQuantum = longBursts ? 20 : 2;
+        generator.maxQuantum = longBursts ? 200 : 10;
+        generator.contextSwitch = contextSwitch;
+        generator.rrQuantum = longBursts ? 50 : 4;
+        generator.agingInterval = longBursts ? 50 : 5;
+        // Only EDF uses deadlines; the other schedulers run the workload they always have
+        generator.deadlines = scheduler.equals("EDF");
+
+        Workload workload = generator.generate();
+        Scheduler instance = BatchRunner.scheduler(scheduler);
+        return () -> instance.schedule(workload);
+    }
+}
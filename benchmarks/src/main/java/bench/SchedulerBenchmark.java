@@ -0,0 +1,65 @@
+package bench;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One full schedule() per invocation. The "processes" counter reports simulated
+// processes per second; the primary score is complete schedules per second.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SchedulerBenchmark {
+    @Param({"SJF", "RR", "Priority", "AG", "MLFQ", "CFS", "EDF"})
+    public String scheduler;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int processes;
+
+    @Param({"dense", "sparse"})
+    public String arrivals;
+
+    @Param({"short", "long"})
+    public String bursts;
+
+    @Param({"0", "2"})
+    public int contextSwitch;
+
+    private Supplier<?> run;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Simulated {
+        public long processes;
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        Method prepare = Class.forName("SchedulerRuns").getMethod("prepare",
+                String.class, int.class, String.class, String.class, int.class, long.class);
+        run = (Supplier<?>) prepare.invoke(null, scheduler, processes, arrivals, bursts, contextSwitch, 42L);
+    }
+
+    @Benchmark
+    public Object schedule(Simulated simulated) {
+        simulated.processes += processes;
+        return run.get();
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+// Ready queue for AGScheduler. Keeps the FIFO order plus two indexes so the
+// head, the highest priority and the shortest remaining time are each found in
+// O(1) and any process can be removed in O(log n). Ties on priority or
+// remaining time go to the process that entered the queue first, matching a
+// Collections.min scan over the FIFO order.
+class AGReadyQueue {
+    private int[] seq;
+    private long nextSeq;
+    private final IndexedMinHeap fifo;
+    private final IndexedMinHeap byPriority;
+    private final IndexedMinHeap byRemaining;
+
+    AGReadyQueue(ProcessTable processes) {
+        int n = Math.max(1, processes.size());
+        this.seq = new int[n];
+        this.fifo = new IndexedMinHeap(n, (a, b) -> Integer.compare(seq[a], seq[b]));
+        this.byPriority = new IndexedMinHeap(n, (a, b) -> {
+            int cmp = Integer.compare(processes.priority(a), processes.priority(b));
+            return cmp != 0 ? cmp : Integer.compare(seq[a], seq[b]);
+        });
+        this.byRemaining = new IndexedMinHeap(n, (a, b) -> {
+            int cmp = Integer.compare(processes.remaining(a), processes.remaining(b));
+            return cmp != 0 ? cmp : Integer.compare(seq[a], seq[b]);
+        });
+    }
+
+    boolean isEmpty() { return fifo.isEmpty(); }
+    int size() { return fifo.size(); }
+
+    // A process's remaining time must not change while it is queued
+    void add(int id) {
+        if (id >= seq.length) seq = Arrays.copyOf(seq, Math.max(id + 1, seq.length * 2));
+        if (nextSeq > Integer.MAX_VALUE) renumber();
+        seq[id] = (int) nextSeq++;
+        fifo.add(id);
+        byPriority.add(id);
+        byRemaining.add(id);
+    }
+
+    int peek() { return fifo.peek(); }
+
+    int poll() {
+        int head = fifo.peek();
+        if (head >= 0) remove(head);
+        return head;
+    }
+
+    int minPriority() { return byPriority.peek(); }
+    int minRemaining() { return byRemaining.peek(); }
+
+    void remove(int id) {
+        fifo.remove(id);
+        byPriority.remove(id);
+        byRemaining.remove(id);
+    }
+
+    // Compact sequence numbers once they run out; relative order is preserved
+    private void renumber() {
+        int size = fifo.size();
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) ids[i] = fifo.poll();
+        byPriority.clear();
+        byRemaining.clear();
+        nextSeq = 0;
+        for (int id : ids) add(id);
+    }
+}
@@ -1,201 +1,300 @@
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Queue;
 
-public class AGScheduler {
-    private List<String> executionOrder;
+public class AGScheduler implements Scheduler {
+    private Timeline timeline;
+    private ScheduleMetrics metrics;
     private boolean is_unit_tes;
 
     public AGScheduler(boolean is_unit_tes) {
-        this.executionOrder = new ArrayList<>();
         this.is_unit_tes = is_unit_tes;
     }
 
+    @Override
+    public String name() {
+        return "AG";
+    }
+
+    @Override
+    public ScheduleResult schedule(Workload workload, ScheduleParams params) {
+        ProcessTable processes = workload.processes.fork();
+        processes.reset();
+        Run run = new Run(processes, Arrivals.of(processes), SchedulerEvent.Sink.NONE);
+        run.drain();
+        return new ScheduleResult(name(), params, processes, run);
+    }
+
     public List<String> getExecutionOrder() {
-        return executionOrder;
+        return timeline.executionOrder();
+    }
+
+    public Timeline getTimeline() {
+        return timeline;
+    }
+
+    public ScheduleMetrics getMetrics() {
+        return metrics;
     }
 
     public void schedule(List<Process> processes) {
-        executionOrder.clear();
+        ProcessTable table = ProcessTable.backing(processes);
+        schedule(table);
+        table.copyResultsTo(processes);
+    }
 
-        // Reset all processes and initialize quantum history
-        for (Process p : processes) {
-            p.reset();
-            p.setRemainingTime(p.getBurstTime());
-            p.getQuantumHistory().add(p.getQuantum());
+    public void schedule(ProcessTable processes) {
+        // Reset all processes; quantum history starts when each one is admitted
+        processes.reset();
+        Run run = new Run(processes, Arrivals.of(processes), SchedulerEvent.Sink.NONE);
+        run.drain();
+        timeline = run.timeline;
+        metrics = run.metrics;
+
+        if (!is_unit_tes) {
+            printResults(processes);
         }
+    }
 
-        // Sort by arrival time
-        List<Process> sortedProcesses = new ArrayList<>(processes);
-        sortedProcesses.sort(Comparator.comparingInt(Process::getArrivalTime));
+    static class Run implements SchedulerRun {
+        private final ProcessTable processes;
+        private final Arrivals arrivals;
+        private final SchedulerEvent.Sink events;
+        private final Timeline timeline;
+        private final ScheduleMetrics metrics = new ScheduleMetrics();
+        private final SchedulerCounters counters = SchedulerCounters.ENABLED ? new SchedulerCounters("AG") : null;
+        private final AGReadyQueue readyQueue;
+        private long currentTime = 0;
+        private int current = -1;
+        private int completed;
+        private int stolen;
+        private long executed;
+        private int lastDispatched = -1;
 
-        Queue<Process> readyQueue = new LinkedList<>();
-        int currentTime = 0;
-        int nextProcessIndex = 0;
-        Process currentProcess = null;
+        Run(ProcessTable processes, Arrivals arrivals, SchedulerEvent.Sink events) {
+            this.processes = processes;
+            this.arrivals = arrivals;
+            this.events = events;
+            this.timeline = new Timeline(processes);
+            this.readyQueue = new AGReadyQueue(processes);
+        }
 
-        while (true) {
+        @Override
+        public boolean step() {
+            if (!arrivals.settled(currentTime)) return false;
             // Add arrived processes
-            while (nextProcessIndex < sortedProcesses.size() &&
-                    sortedProcesses.get(nextProcessIndex).getArrivalTime() <= currentTime) {
-                Process p = sortedProcesses.get(nextProcessIndex++);
-                readyQueue.add(p);
-            }
+            admit();
+            if (SchedulerCounters.ENABLED) counters.steps++;
 
-            if (readyQueue.isEmpty() && currentProcess == null) {
-                if (nextProcessIndex == sortedProcesses.size())
-                    break;
-                currentTime = sortedProcesses.get(nextProcessIndex).getArrivalTime();
-                continue;
+            if (readyQueue.isEmpty() && current == -1) {
+                if (!arrivals.hasNext()) return false;
+                if (SchedulerCounters.ENABLED) {
+                    counters.idleJumps++;
+                    counters.idleTicks += arrivals.peekTime() - currentTime;
+                }
+                currentTime = arrivals.peekTime();
+                return true;
             }
 
-            if (currentProcess == null) {
-                currentProcess = readyQueue.poll();
-            }
+            // The cycle looks at arrivals again after each of its first two phases
+            int candidate = current != -1 ? current : readyQueue.peek();
+            int phase = (processes.quantum(candidate) + 3) / 4;
+            if (!arrivals.settled(currentTime + Math.min(2L * phase, processes.remaining(candidate)))) return false;
 
-            // Add to execution order
-            executionOrder.add(currentProcess.getName());
+            if (current == -1) {
+                current = readyQueue.poll();
+                processes.dispatch(current, currentTime);
+                events.accept(SchedulerEvent.Type.DISPATCH, current, currentTime, 0);
+                if (SchedulerCounters.ENABLED) {
+                    counters.readyQueueRemoves++;
+                    counters.dispatches++;
+                    if (lastDispatched != -1 && lastDispatched != current) counters.contextSwitches++;
+                }
+            }
+            if (SchedulerCounters.ENABLED) lastDispatched = current;
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+            // Add to execution order; consecutive runs of one process share a segment
+            timeline.appendMerged(current, currentTime, currentTime);
 
             // Phase 1: FCFS for ceil(25%) of quantum
-            int quantum = currentProcess.getQuantum();
+            int quantum = processes.quantum(current);
             int time = (quantum + 3) / 4;  // ceil(25%)
-            time = Math.min(time, currentProcess.getRemainingTime());
-            currentProcess.setRemainingTime(currentProcess.getRemainingTime() - time);
+            time = Math.min(time, processes.remaining(current));
+            processes.setRemaining(current, processes.remaining(current) - time);
+            executed += time;
             int rem = quantum - time;
+            timeline.appendMerged(current, currentTime, currentTime + time);
             currentTime += time;
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.AG_PHASE_1, started);
 
             // Check if process finished
-            if (currentProcess.getRemainingTime() == 0) {
-                calculateMetrics(currentProcess, currentTime);
-                currentProcess.setQuantum(0);  // scenario iv
-                currentProcess = null;
-                continue;
+            if (processes.remaining(current) == 0) {
+                finish();
+                return true;
             }
 
             // Add newly arrived processes
-            while (nextProcessIndex < sortedProcesses.size() &&
-                    sortedProcesses.get(nextProcessIndex).getArrivalTime() <= currentTime) {
-                Process p = sortedProcesses.get(nextProcessIndex++);
-                readyQueue.add(p);
-            }
+            admit();
+            if (SchedulerCounters.ENABLED) started = System.nanoTime();
 
             // Check for priority preemption (go to Phase 2)
-            Process nextProcess = null;
-            if (!readyQueue.isEmpty())
-                nextProcess = Collections.min(readyQueue, Comparator.comparingInt(Process::getPriority));
-
-            if (nextProcess == null || currentProcess.getPriority() <= nextProcess.getPriority())
-                nextProcess = currentProcess;
-
-            if (nextProcess != currentProcess) {
+            int next = readyQueue.minPriority();
+            if (next != -1 && processes.priority(next) < processes.priority(current)) {
                 // Scenario ii: Priority preemption - add ceil(remaining/2)
-                currentProcess.setQuantum(currentProcess.getQuantum() + (rem + 1) / 2);
-                readyQueue.remove(nextProcess);
-                readyQueue.add(currentProcess);
-                currentProcess = nextProcess;
-                continue;
+                setQuantum(processes.quantum(current) + (rem + 1) / 2);
+                preempt(next, SchedulerCounters.Cause.HIGHER_PRIORITY);
+                return true;
             }
 
             // Phase 2: Non-preemptive Priority for another ceil(25%)
             time = (quantum + 3) / 4;  // another ceil(25%)
-            time = Math.min(time, currentProcess.getRemainingTime());
-            currentProcess.setRemainingTime(currentProcess.getRemainingTime() - time);
+            time = Math.min(time, processes.remaining(current));
+            processes.setRemaining(current, processes.remaining(current) - time);
+            executed += time;
             rem -= time;
+            timeline.appendMerged(current, currentTime, currentTime + time);
             currentTime += time;
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.AG_PHASE_2, started);
 
             // Check if process finished
-            if (currentProcess.getRemainingTime() == 0) {
-                calculateMetrics(currentProcess, currentTime);
-                currentProcess.setQuantum(0);  // scenario iv
-                currentProcess = null;
-                continue;
+            if (processes.remaining(current) == 0) {
+                finish();
+                return true;
             }
 
             // Add newly arrived processes
-            while (nextProcessIndex < sortedProcesses.size() &&
-                    sortedProcesses.get(nextProcessIndex).getArrivalTime() <= currentTime) {
-                Process p = sortedProcesses.get(nextProcessIndex++);
-                readyQueue.add(p);
-            }
+            admit();
+            if (SchedulerCounters.ENABLED) started = System.nanoTime();
 
             // Check for SJF preemption (go to Phase 3)
-            nextProcess = null;
-            if (!readyQueue.isEmpty())
-                nextProcess = Collections.min(readyQueue, Comparator.comparingInt(Process::getRemainingTime));
-
-            if (nextProcess == null || currentProcess.getRemainingTime() <= nextProcess.getRemainingTime())
-                nextProcess = currentProcess;
-
-            if (nextProcess != currentProcess) {
+            next = readyQueue.minRemaining();
+            if (next != -1 && processes.remaining(next) < processes.remaining(current)) {
                 // Scenario iii: SJF preemption - add full remaining quantum
-                currentProcess.setQuantum(currentProcess.getQuantum() + rem);
-                readyQueue.remove(nextProcess);
-                readyQueue.add(currentProcess);
-                currentProcess = nextProcess;
-                continue;
+                setQuantum(processes.quantum(current) + rem);
+                preempt(next, SchedulerCounters.Cause.SHORTER_JOB);
+                return true;
             }
 
             // Phase 3: Execute remaining quantum
             time = rem;
-            time = Math.min(time, currentProcess.getRemainingTime());
-            currentProcess.setRemainingTime(currentProcess.getRemainingTime() - time);
+            time = Math.min(time, processes.remaining(current));
+            processes.setRemaining(current, processes.remaining(current) - time);
+            executed += time;
+            timeline.appendMerged(current, currentTime, currentTime + time);
             currentTime += time;
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.AG_PHASE_3, started);
 
             // Check if process finished
-            if (currentProcess.getRemainingTime() == 0) {
-                calculateMetrics(currentProcess, currentTime);
-                currentProcess.setQuantum(0);  // scenario iv
-                currentProcess = null;
-                continue;
+            if (processes.remaining(current) == 0) {
+                finish();
+                return true;
             }
 
             // Scenario i: Quantum exhausted - add 2
-            currentProcess.setQuantum(currentProcess.getQuantum() + 2);
-            readyQueue.add(currentProcess);
-            currentProcess = null;
+            setQuantum(processes.quantum(current) + 2);
+            events.accept(SchedulerEvent.Type.PREEMPT, current, currentTime, 0);
+            readyQueue.add(current);
+            if (SchedulerCounters.ENABLED) {
+                counters.preempted(SchedulerCounters.Cause.QUANTUM_EXPIRED);
+                counters.readyQueueAdds++;
+            }
+            current = -1;
+            return true;
         }
 
-        // Remove consecutive duplicates from execution order
-        List<String> cleanedOrder = new ArrayList<>();
-        for (String name : executionOrder) {
-            if (cleanedOrder.isEmpty() || !cleanedOrder.get(cleanedOrder.size() - 1).equals(name)) {
-                cleanedOrder.add(name);
+        @Override
+        public boolean finished() {
+            return arrivals.exhausted() && completed + stolen == arrivals.size();
+        }
+
+        @Override
+        public long time() {
+            return currentTime;
+        }
+
+        @Override
+        public long executedWork() {
+            return executed;
+        }
+
+        @Override
+        public boolean idle() {
+            return !arrivals.hasNext() && completed + stolen == arrivals.size();
+        }
+
+        @Override
+        public int steal() {
+            // The running process is held outside the queue
+            if (readyQueue.isEmpty()) return -1;
+            stolen++;
+            return readyQueue.poll();
+        }
+
+        @Override
+        public Timeline timeline() {
+            return timeline;
+        }
+
+        @Override
+        public ScheduleMetrics metrics() {
+            return metrics;
+        }
+
+        @Override
+        public SchedulerCounters counters() {
+            return counters;
+        }
+
+        private void admit() {
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+            while (arrivals.hasNext() && arrivals.peekTime() <= currentTime) {
+                int i = arrivals.poll();
+                processes.recordQuantum(i, processes.quantum(i));
+                readyQueue.add(i);
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
             }
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.ADMIT, started);
         }
-        executionOrder.clear();
-        executionOrder.addAll(cleanedOrder);
 
-        if (!is_unit_tes) {
-            printResults(processes);
+        private void setQuantum(int quantum) {
+            processes.setQuantum(current, quantum);
+            events.accept(SchedulerEvent.Type.QUANTUM, current, currentTime, quantum);
+        }
+
+        private void finish() {
+            completed++;
+            processes.complete(current, currentTime);
+            events.accept(SchedulerEvent.Type.COMPLETE, current, currentTime, 0);
+            metrics.completed(processes, current);
+            if (SchedulerCounters.ENABLED) counters.completions++;
+            setQuantum(0);  // scenario iv
+            current = -1;
         }
-    }
 
-    private void calculateMetrics(Process p, int currentTime) {
-        p.setCompletionTime(currentTime);
-        p.setTurnaroundTime(currentTime - p.getArrivalTime());
-        p.setWaitingTime(p.getTurnaroundTime() - p.getBurstTime());
+        private void preempt(int next, SchedulerCounters.Cause cause) {
+            events.accept(SchedulerEvent.Type.PREEMPT, current, currentTime, 0);
+            readyQueue.remove(next);
+            readyQueue.add(current);
+            current = next;
+            processes.dispatch(current, currentTime);
+            events.accept(SchedulerEvent.Type.DISPATCH, current, currentTime, 0);
+            if (SchedulerCounters.ENABLED) {
+                counters.preempted(cause);
+                counters.readyQueueRemoves++;
+                counters.readyQueueAdds++;
+                counters.dispatches++;
+                counters.contextSwitches++;
+                lastDispatched = current;
+            }
+        }
     }
 
-    private void printResults(List<Process> processes) {
-        System.out.println("\n=== AG Scheduling Results ===");
-        System.out.println("Execution Order: " + executionOrder);
-        System.out.println("\nProcess Details:");
-        System.out.println("---------------------------------------------------------------");
-        System.out.printf("%-10s %-12s %-15s %-20s%n", "Process", "Wait Time", "Turnaround", "Quantum History");
-        System.out.println("---------------------------------------------------------------");
-
-        double totalWait = 0, totalTurnaround = 0;
-        for (Process p : processes) {
-            System.out.printf("%-10s %-12d %-15d %s%n",
-                    p.getName(), p.getWaitingTime(), p.getTurnaroundTime(), p.getQuantumHistory());
-            totalWait += p.getWaitingTime();
-            totalTurnaround += p.getTurnaroundTime();
-        }
-        System.out.println("---------------------------------------------------------------");
-        System.out.printf("Average Waiting Time: %.2f%n", totalWait / processes.size());
-        System.out.printf("Average Turnaround Time: %.2f%n", totalTurnaround / processes.size());
+    private void printResults(ProcessTable processes) {
+        try (ReportWriter report = ReportWriter.stdout(ReportWriter.Format.TEXT)) {
+            report.column("Quantum History", "quantumHistory", processes::quantumHistory)
+                    .write("AG Scheduling", processes, timeline, metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
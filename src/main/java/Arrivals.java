@@ -0,0 +1,85 @@
+import java.util.Arrays;
+
+// The arrivals a scheduler run can see, in time order. A batch run knows every
+// row up front. An online run is fed rows as they arrive plus a watermark, the
+// time up to which nothing else can arrive. A run may only take a decision
+// once every arrival that could change it is known.
+class Arrivals {
+    private final ProcessTable processes;
+    private int[] rows;
+    private int size;
+    private int next;
+    private long watermark = Long.MIN_VALUE;
+    private boolean closed;
+
+    Arrivals(ProcessTable processes) {
+        this.processes = processes;
+        this.rows = new int[16];
+    }
+
+    // Every row of the table, already closed
+    static Arrivals of(ProcessTable processes) {
+        Arrivals arrivals = new Arrivals(processes);
+        arrivals.rows = processes.sortedByArrival();
+        arrivals.size = arrivals.rows.length;
+        arrivals.closed = true;
+        return arrivals;
+    }
+
+    // Rows must be added in arrival order and after the watermark
+    void add(int row) {
+        checkNext(processes.arrival(row));
+        if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+        rows[size++] = row;
+    }
+
+    // Adds a row that arrives at the watermark itself, as a process migrated to
+    // an idle run does; the run has taken no decision at that time yet
+    void migrate(int row) {
+        int arrival = processes.arrival(row);
+        if (arrival < watermark) throw new IllegalArgumentException("Migration at " + arrival + " is in the past");
+        long settled = watermark;
+        watermark = arrival - 1L;
+        add(row);
+        watermark = settled;
+    }
+
+    void checkNext(int arrival) {
+        if (closed) throw new IllegalStateException("No more arrivals expected");
+        if (arrival <= watermark) {
+            throw new IllegalArgumentException("Arrival " + arrival + " is not after the watermark " + watermark);
+        }
+        if (size > 0 && arrival < processes.arrival(rows[size - 1])) {
+            throw new IllegalArgumentException("Arrival " + arrival + " is before the previous arrival");
+        }
+    }
+
+    void advanceTo(long time) {
+        watermark = Math.max(watermark, time);
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    int size() { return size; }
+    boolean hasNext() { return next < size; }
+    int peek() { return rows[next]; }
+    int poll() { return rows[next++]; }
+    long peekTime() { return processes.arrival(rows[next]); }
+
+    // Time of the next known arrival, or Long.MAX_VALUE if none is pending
+    long nextTime() {
+        return next < size ? processes.arrival(rows[next]) : Long.MAX_VALUE;
+    }
+
+    // True when every arrival at or before time is known
+    boolean settled(long time) {
+        return closed || time <= watermark || (size > 0 && processes.arrival(rows[size - 1]) > time);
+    }
+
+    // True once the stream is closed and every row has been taken
+    boolean exhausted() {
+        return closed && next == size;
+    }
+}
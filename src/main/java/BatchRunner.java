@@ -0,0 +1,207 @@
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+// Runs every workload file found under a set of directories through the
+// schedulers. Each file is parsed once; every (file, scheduler) pair then runs
+// as its own task on a fork-join pool against the shared parsed workload.
+// Results come back in a fixed order: by file path, then in the order of the
+// file's expectedOutput entries, or SJF, RR, Priority, AG, MLFQ, CFS, EDF for a
+// file without one. An expectedOutput key is a scheduler spec (see scheduler()),
+// so a file can also check configured instances, e.g. "EDF maxMisses=2".
+public class BatchRunner {
+    // Scheduler instances are stateless and shared by all tasks
+    static final Scheduler[] SCHEDULERS = {
+            new SJFScheduler(true), new RRScheduler(true), new PriorityScheduler(true), new AGScheduler(true),
+            new MLFQScheduler(true), new CFSScheduler(true), new EDFScheduler(true)};
+
+    public static class Result {
+        public final String file;
+        public final String scheduler;
+        public final String status; // PASS, FAIL, RUN (no expected output) or ERROR
+        public final double averageWaitingTime;
+        public final double averageTurnaroundTime;
+        public final String detail;
+
+        Result(String file, String scheduler, String status, double averageWaitingTime,
+               double averageTurnaroundTime, String detail) {
+            this.file = file;
+            this.scheduler = scheduler;
+            this.status = status;
+            this.averageWaitingTime = averageWaitingTime;
+            this.averageTurnaroundTime = averageTurnaroundTime;
+            this.detail = detail;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ForkJoinPool pool;
+    private final ResultCache cache;
+
+    public BatchRunner(int parallelism) {
+        this(parallelism, null);
+    }
+
+    // With a cache, unchanged (workload, scheduler, parameters) runs are served from it
+    public BatchRunner(int parallelism, ResultCache cache) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.cache = cache;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // All .json and .bin files below the given directories, sorted by path
+    public static List<Path> discover(List<Path> roots) throws IOException {
+        TreeSet<Path> files = new TreeSet<>();
+        for (Path root : roots) {
+            try (Stream<Path> walk = Files.walk(root)) {
+                walk.filter(Files::isRegularFile)
+                        .filter(p -> p.toString().endsWith(".json") || p.toString().endsWith(".bin"))
+                        .forEach(p -> files.add(p.normalize()));
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    public List<Result> run(List<Path> roots) throws IOException {
+        List<CompletableFuture<List<Result>>> perFile = new ArrayList<>();
+        for (Path file : discover(roots)) {
+            perFile.add(CompletableFuture.supplyAsync(() -> load(file), pool)
+                    .thenCompose(workload -> runAll(file, workload))
+                    .exceptionally(e -> Collections.singletonList(
+                            new Result(file.toString(), "-", "ERROR", 0, 0, String.valueOf(e.getCause())))));
+        }
+        List<Result> results = new ArrayList<>();
+        for (CompletableFuture<List<Result>> future : perFile) {
+            results.addAll(future.join());
+        }
+        return results;
+    }
+
+    public static void print(List<Result> results) {
+        int passed = 0, failed = 0, errors = 0;
+        // Wide enough for the longest scheduler spec, e.g. "MLFQ quanta=2,4 boostInterval=10"
+        int width = 9;
+        for (Result r : results) width = Math.max(width, r.scheduler.length());
+        String row = "%-6s %-" + width + "s %-45s avgWait=%-10.2f avgTurnaround=%.2f%n";
+        for (Result r : results) {
+            System.out.printf(row, r.status, r.scheduler, r.file, r.averageWaitingTime, r.averageTurnaroundTime);
+            if (r.detail != null) System.out.print(r.detail.endsWith("\n") ? r.detail : r.detail + "\n");
+            if (r.status.equals("PASS")) passed++;
+            else if (r.status.equals("FAIL")) failed++;
+            else if (r.status.equals("ERROR")) errors++;
+        }
+        System.out.printf("%n%d runs: %d passed, %d failed, %d errors%n", results.size(), passed, failed, errors);
+    }
+
+    // A .bin file has no expectedOutput of its own; one next to a .json of the same
+    // name is checked against that file's, so a fixture can cover both formats
+    static Workload load(Path file) {
+        try {
+            if (!file.toString().endsWith(".bin")) return WorkloadReader.read(file.toFile());
+            Workload workload = BinaryWorkload.map(file);
+            String name = file.getFileName().toString();
+            Path json = file.resolveSibling(name.substring(0, name.length() - ".bin".length()) + ".json");
+            if (!Files.isRegularFile(json)) return workload;
+            return new Workload(workload.name, workload.processes, workload.contextSwitch, workload.rrQuantum,
+                    workload.agingInterval, WorkloadReader.read(json.toFile()).expectedOutput);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompletableFuture<List<Result>> runAll(Path file, Workload workload) {
+        Map<String, JsonStructure.AlgorithmResult> expected = expectedResults(workload.expectedOutput);
+        String digest = cache == null ? null : ResultCache.digest(workload.processes);
+        List<CompletableFuture<Result>> tasks = new ArrayList<>();
+        if (expected == null) {
+            for (Scheduler scheduler : SCHEDULERS) {
+                tasks.add(CompletableFuture.supplyAsync(
+                        () -> runOne(file.toString(), scheduler.name(), scheduler, workload, digest, null), pool));
+            }
+        } else {
+            // Files with expected output only cover the schedulers they list
+            for (Map.Entry<String, JsonStructure.AlgorithmResult> entry : expected.entrySet()) {
+                tasks.add(CompletableFuture.supplyAsync(() -> {
+                    Scheduler scheduler;
+                    try {
+                        scheduler = scheduler(entry.getKey());
+                    } catch (IllegalArgumentException e) {
+                        return new Result(file.toString(), entry.getKey(), "ERROR", 0, 0, e.getMessage());
+                    }
+                    return runOne(file.toString(), entry.getKey(), scheduler, workload, digest, entry.getValue());
+                }, pool));
+            }
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<Result> results = new ArrayList<>();
+                    for (CompletableFuture<Result> task : tasks) results.add(task.join());
+                    return results;
+                });
+    }
+
+    // AG files hold a single result, the other test files one result per scheduler
+    static Map<String, JsonStructure.AlgorithmResult> expectedResults(JsonNode expectedOutput) {
+        if (expectedOutput == null) return null;
+        if (expectedOutput.has("executionOrder")) {
+            Map<String, JsonStructure.AlgorithmResult> ag = new LinkedHashMap<>();
+            ag.put("AG", MAPPER.convertValue(expectedOutput, JsonStructure.AlgorithmResult.class));
+            return ag;
+        }
+        return MAPPER.convertValue(expectedOutput, new TypeReference<Map<String, JsonStructure.AlgorithmResult>>() {});
+    }
+
+    private Result runOne(String file, String spec, Scheduler scheduler, Workload workload, String digest,
+                          JsonStructure.AlgorithmResult expected) {
+        try {
+            ScheduleResult result = cache == null ? scheduler.schedule(workload)
+                    : cache.schedule(scheduler, workload, ScheduleParams.of(workload), digest);
+            String status = "RUN";
+            String detail = null;
+            if (expected != null) {
+                detail = Verifier.verify(result, expected);
+                status = detail == null ? "PASS" : "FAIL";
+            }
+            return new Result(file, spec, status, result.averageWaitingTime(),
+                    result.averageTurnaroundTime(), detail);
+        } catch (RuntimeException e) {
+            return new Result(file, spec, "ERROR", 0, 0, e.toString());
+        }
+    }
+
+    // The shared instance of the named scheduler, or for "<name> key=value ..." a new
+    // one configured with those settings, e.g. "MLFQ quanta=2,4 boostInterval=30"
+    static Scheduler scheduler(String spec) {
+        String[] words = spec.trim().split("\\s+");
+        Scheduler named = null;
+        for (Scheduler scheduler : SCHEDULERS) {
+            if (scheduler.name().equals(words[0])) named = scheduler;
+        }
+        if (named == null) throw new IllegalArgumentException("Unknown scheduler " + words[0]);
+        if (words.length == 1) return named;
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (int i = 1; i < words.length; i++) {
+            int equals = words[i].indexOf('=');
+            if (equals <= 0) throw new IllegalArgumentException("Expected key=value, got " + words[i]);
+            settings.put(words[i].substring(0, equals), words[i].substring(equals + 1));
+        }
+        return named.configure(settings);
+    }
+}
@@ -0,0 +1,203 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+
+// Fixed-width binary workload format, little endian:
+//
+//   header (32 bytes): magic, version, processCount, nameCount,
+//                      contextSwitch, rrQuantum, agingInterval, nameBytes
+//   columns:           arrival[n], burst[n], priority[n], quantum[n], nameId[n]
+//                      and, version 2 only, deadline[n]
+//   name dictionary:   offsets[nameCount + 1], then nameBytes of UTF-8
+//
+// Workloads without deadlines are still written as version 1.
+// Each field is stored as its own packed column so a mapped file can back a
+// ProcessTable column for column, without copying anything at open time.
+public class BinaryWorkload {
+    static final int MAGIC = 0x57555043; // "CPUW"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 32;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: BinaryWorkload <workload.json> <workload.bin>");
+            return;
+        }
+        convert(new File(args[0]), Path.of(args[1]));
+    }
+
+    // Converts a JSON workload (JsonStructure layout) into the binary format
+    public static void convert(File json, Path out) throws IOException {
+        write(WorkloadReader.read(json), out);
+    }
+
+    public static void write(Workload workload, Path out) throws IOException {
+        ProcessTable table = workload.processes;
+        int n = table.size();
+        byte[][] names = new byte[table.nameCount()][];
+        long nameBytes = 0;
+        for (int id = 0; id < names.length; id++) {
+            String name = table.nameForId(id);
+            names[id] = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+            nameBytes += names[id].length;
+        }
+        if (nameBytes > Integer.MAX_VALUE) throw new IOException("Name dictionary exceeds 2 GB");
+
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(table.hasDeadlines() ? VERSION : 1).putInt(n).putInt(names.length)
+                    .putInt(workload.contextSwitch).putInt(workload.rrQuantum).putInt(workload.agingInterval)
+                    .putInt((int) nameBytes);
+
+            for (int row = 0; row < n; row++) putInt(channel, buffer, table.arrival(row));
+            for (int row = 0; row < n; row++) putInt(channel, buffer, table.burst(row));
+            for (int row = 0; row < n; row++) putInt(channel, buffer, table.priority(row));
+            for (int row = 0; row < n; row++) putInt(channel, buffer, table.initialQuantum(row));
+            for (int row = 0; row < n; row++) putInt(channel, buffer, table.nameId(row));
+            if (table.hasDeadlines()) {
+                for (int row = 0; row < n; row++) putInt(channel, buffer, table.deadline(row));
+            }
+
+            int offset = 0;
+            putInt(channel, buffer, offset);
+            for (byte[] name : names) {
+                offset += name.length;
+                putInt(channel, buffer, offset);
+            }
+            for (byte[] name : names) {
+                for (int i = 0; i < name.length; ) {
+                    if (!buffer.hasRemaining()) flush(channel, buffer);
+                    int chunk = Math.min(buffer.remaining(), name.length - i);
+                    buffer.put(name, i, chunk);
+                    i += chunk;
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    // Maps the file and returns a workload whose table reads straight from the mapping.
+    // The mapping stays valid after this returns; it is released when the table is collected.
+    // The header is checked against the file's size, and the name ids and dictionary offsets
+    // against the dictionary, so a damaged file fails here rather than inside a scheduler.
+    public static Workload map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException(path + " is not a binary workload");
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) throw new IOException(path + " is not a binary workload");
+            int version = header.getInt(4);
+            if (version < 1 || version > VERSION) {
+                throw new IOException(path + ": unsupported workload version " + version);
+            }
+            int n = header.getInt(8);
+            int nameCount = header.getInt(12);
+            int nameBytes = header.getInt(28);
+            if (n < 0 || nameCount < 0 || nameBytes < 0) {
+                throw new IOException(path + ": negative count in header (processes " + n + ", names " + nameCount
+                        + ", name bytes " + nameBytes + ")");
+            }
+            long expected = HEADER_BYTES + 4L * n * (version >= 2 ? 6 : 5) + 4L * (nameCount + 1) + nameBytes;
+            if (expected > channel.size()) {
+                throw new IOException(path + ": header needs " + expected + " bytes, file has " + channel.size());
+            }
+
+            long position = HEADER_BYTES;
+            long columnBytes = 4L * n;
+            IntBuffer arrival = map(channel, position, columnBytes).asIntBuffer();
+            IntBuffer burst = map(channel, position += columnBytes, columnBytes).asIntBuffer();
+            IntBuffer priority = map(channel, position += columnBytes, columnBytes).asIntBuffer();
+            IntBuffer quantum = map(channel, position += columnBytes, columnBytes).asIntBuffer();
+            IntBuffer nameId = map(channel, position += columnBytes, columnBytes).asIntBuffer();
+            IntBuffer deadline = null;
+            if (version >= 2) deadline = map(channel, position += columnBytes, columnBytes).asIntBuffer();
+            position += columnBytes;
+            long offsetBytes = 4L * (nameCount + 1);
+            IntBuffer offsets = map(channel, position, offsetBytes).asIntBuffer();
+            ByteBuffer data = map(channel, position + offsetBytes, nameBytes);
+            check(path, nameId, nameCount, offsets, nameBytes);
+
+            ProcessTable processes = new ProcessTable(n, arrival, burst, priority, quantum, nameId, deadline,
+                    new MappedNames(nameCount, offsets, data));
+            return new Workload(path.getFileName().toString(), processes, header.getInt(16), header.getInt(20),
+                    header.getInt(24), null);
+        }
+    }
+
+    // Name ids within the dictionary, and offsets from 0 to nameBytes that never decrease
+    private static void check(Path path, IntBuffer nameId, int nameCount, IntBuffer offsets, int nameBytes)
+            throws IOException {
+        for (int row = 0; row < nameId.limit(); row++) {
+            int id = nameId.get(row);
+            if (id < 0 || id >= nameCount) {
+                throw new IOException(path + ": process " + row + " has name id " + id + ", dictionary has "
+                        + nameCount + " names");
+            }
+        }
+        if (offsets.get(0) != 0) throw new IOException(path + ": name offsets start at " + offsets.get(0) + ", not 0");
+        int previous = 0;
+        for (int id = 1; id <= nameCount; id++) {
+            int offset = offsets.get(id);
+            if (offset < previous || offset > nameBytes) {
+                throw new IOException(path + ": name offset " + id + " is " + offset + " after " + previous
+                        + ", with " + nameBytes + " name bytes");
+            }
+            previous = offset;
+        }
+        if (previous != nameBytes) {
+            throw new IOException(path + ": name offsets end at " + previous + ", not at " + nameBytes);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("Section larger than 2 GB");
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) flush(channel, buffer);
+        buffer.putInt(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    // Name dictionary decoded on demand, so opening a file does not touch every name
+    private static class MappedNames extends AbstractList<String> {
+        private final int size;
+        private final IntBuffer offsets;
+        private final ByteBuffer data;
+
+        MappedNames(int size, IntBuffer offsets, ByteBuffer data) {
+            this.size = size;
+            this.offsets = offsets;
+            this.data = data;
+        }
+
+        @Override
+        public String get(int id) {
+            int start = offsets.get(id);
+            byte[] bytes = new byte[offsets.get(id + 1) - start];
+            data.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Completely Fair Scheduler model. Each process has a weight from its priority,
+// read as a nice value (lower is more important, clamped to -20..19, Linux's
+// weight table), and a virtual runtime that grows by runtime * 1024 / weight.
+// The ready set is a heap on vruntime, so insert and pick are O(log n):
+//   - the process with the smallest vruntime runs next
+//   - its slice is its weight's share of the scheduling period, the period
+//     being targetLatency or, with many processes, minGranularity each;
+//     a slice is never shorter than minGranularity
+//   - a new process starts at the smallest vruntime seen so far, so it
+//     neither starves the others nor is starved by them
+//   - arrivals join the ready set when the running slice ends
+// Slices run whole, one step each. A process running alone runs on in
+// minGranularity steps and is re-sliced at the first step boundary at or
+// after the next arrival, as a scheduler tick would notice the newcomer.
+// Without explicit values, minGranularity is rrQuantum and targetLatency
+// 4 * rrQuantum; a context switch costs contextSwitch as in RR and SJF.
+public class CFSScheduler implements Scheduler {
+    static final int NICE_0_WEIGHT = 1024;
+    // Weight of nice -20 .. 19, each step about 1.25x
+    static final int[] WEIGHTS = {
+            88761, 71755, 56483, 46273, 36291, 29154, 23254, 18705, 14949, 11916,
+            9548, 7620, 6100, 4904, 3906, 3121, 2501, 1991, 1586, 1277,
+            1024, 820, 655, 526, 423, 335, 272, 215, 172, 137,
+            110, 87, 70, 56, 45, 36, 29, 23, 18, 15};
+    // vruntime is kept in 1/2^20 time units so light weights still advance it exactly enough
+    private static final int VRUNTIME_SHIFT = 20;
+    // Only differences of vruntime matter, so past this they are rebased on minVruntime.
+    // One slice adds at most 2^31 * 2^30 / 15 < 2^58, so no sum overflows.
+    private static final long VRUNTIME_REBASE = 1L << 60;
+    static final int DEFAULT_LATENCY_GRANULES = 4;
+
+    private final int targetLatency;
+    private final int minGranularity;
+    private Timeline timeline;
+    private ScheduleMetrics metrics;
+    private boolean is_unit_tes;
+
+    public CFSScheduler(boolean is_unit_tes) {
+        this(is_unit_tes, 0, 0);
+    }
+
+    // Values <= 0 take the defaults derived from rrQuantum
+    public CFSScheduler(boolean is_unit_tes, int targetLatency, int minGranularity) {
+        this.is_unit_tes = is_unit_tes;
+        this.targetLatency = targetLatency;
+        this.minGranularity = minGranularity;
+    }
+
+    @Override
+    public String name() {
+        return "CFS";
+    }
+
+    @Override
+    public String configKey() {
+        return "targetLatency=" + targetLatency + " minGranularity=" + minGranularity;
+    }
+
+    @Override
+    public CFSScheduler configure(Map<String, String> settings) {
+        int latency = targetLatency;
+        int granularity = minGranularity;
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            switch (setting.getKey()) {
+                case "targetLatency":
+                    latency = Integer.parseInt(setting.getValue());
+                    break;
+                case "minGranularity":
+                    granularity = Integer.parseInt(setting.getValue());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown CFS setting " + setting.getKey());
+            }
+        }
+        return new CFSScheduler(is_unit_tes, latency, granularity);
+    }
+
+    @Override
+    public ScheduleResult schedule(Workload workload, ScheduleParams params) {
+        ProcessTable processes = workload.processes.fork();
+        processes.reset();
+        Run run = start(processes, Arrivals.of(processes), params, SchedulerEvent.Sink.NONE);
+        run.drain();
+        return new ScheduleResult(name(), params, processes, run);
+    }
+
+    public List<String> getExecutionOrder() {
+        return timeline.executionOrder();
+    }
+
+    public Timeline getTimeline() {
+        return timeline;
+    }
+
+    public ScheduleMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void schedule(List<Process> processes, int quantum, int contextSwitching) {
+        ProcessTable table = ProcessTable.backing(processes);
+        schedule(table, quantum, contextSwitching);
+        table.copyResultsTo(processes);
+    }
+
+    public void schedule(ProcessTable processes, int quantum, int contextSwitching) {
+        processes.reset();
+        Run run = start(processes, Arrivals.of(processes), new ScheduleParams(contextSwitching, quantum, 0),
+                SchedulerEvent.Sink.NONE);
+        run.drain();
+        timeline = run.timeline;
+        metrics = run.metrics;
+
+        if (!is_unit_tes) {
+            printResults(processes);
+        }
+    }
+
+    Run start(ProcessTable processes, Arrivals arrivals, ScheduleParams params, SchedulerEvent.Sink events) {
+        int granularity = minGranularity > 0 ? minGranularity : params.rrQuantum;
+        if (granularity < 1) throw new IllegalArgumentException("CFS needs a minimum granularity >= 1");
+        int latency = targetLatency > 0 ? targetLatency : DEFAULT_LATENCY_GRANULES * granularity;
+        return new Run(processes, arrivals, Math.max(latency, granularity), granularity, params.contextSwitch, events);
+    }
+
+    static int weight(int priority) {
+        return WEIGHTS[Math.max(-20, Math.min(19, priority)) + 20];
+    }
+
+    static class Run implements SchedulerRun {
+        private final ProcessTable processes;
+        private final Arrivals arrivals;
+        private final int targetLatency;
+        private final int minGranularity;
+        private final int contextSwitching;
+        private final SchedulerEvent.Sink events;
+        private final Timeline timeline;
+        private final ScheduleMetrics metrics = new ScheduleMetrics();
+        private final SchedulerCounters counters = SchedulerCounters.ENABLED ? new SchedulerCounters("CFS") : null;
+
+        private long[] vruntime;
+        private final IndexedMinHeap readyQueue;
+        // Never decreases; where new processes start
+        private long minVruntime;
+        // Processes admitted and not yet completed or stolen, and their total weight
+        private int running;
+        private long totalWeight;
+
+        private long currentTime;
+        private int lastProcess = -1;
+        private int completed;
+        private int stolen;
+        private long executed;
+
+        Run(ProcessTable processes, Arrivals arrivals, int targetLatency, int minGranularity, int contextSwitching,
+            SchedulerEvent.Sink events) {
+            this.processes = processes;
+            this.arrivals = arrivals;
+            this.targetLatency = targetLatency;
+            this.minGranularity = minGranularity;
+            this.contextSwitching = contextSwitching;
+            this.events = events;
+            this.timeline = new Timeline(processes);
+            this.vruntime = new long[Math.max(1, processes.size())];
+            // Ready set keyed on (vruntime, arrivalTime), ties keep input order
+            this.readyQueue = new IndexedMinHeap(processes.size(), (a, b) -> {
+                int cmp = Long.compare(vruntime[a], vruntime[b]);
+                if (cmp == 0) cmp = Integer.compare(processes.arrival(a), processes.arrival(b));
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            });
+        }
+
+        @Override
+        public boolean step() {
+            if (!arrivals.settled(currentTime)) return false;
+            admit();
+            if (SchedulerCounters.ENABLED) counters.steps++;
+            if (readyQueue.isEmpty()) {
+                // Idle: jump straight to the next arrival
+                if (!arrivals.hasNext()) return false;
+                if (SchedulerCounters.ENABLED) {
+                    counters.idleJumps++;
+                    counters.idleTicks += arrivals.peekTime() - currentTime;
+                }
+                currentTime = arrivals.peekTime();
+                return true;
+            }
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+
+            int current = readyQueue.peek();
+            long start = currentTime;
+            if (lastProcess != -1 && lastProcess != current) {
+                start += contextSwitching;
+            }
+            int weight = weight(processes.priority(current));
+            long slice;
+            if (readyQueue.size() == 1) {
+                // Alone, it runs in minGranularity steps until the first one ending at/after the next arrival
+                slice = Long.MAX_VALUE;
+                if (arrivals.hasNext()) {
+                    slice = Math.max(1, (arrivals.peekTime() - start + minGranularity - 1) / minGranularity)
+                            * minGranularity;
+                }
+            } else {
+                long period = Math.max(targetLatency, (long) running * minGranularity);
+                slice = Math.max(minGranularity, period * weight / totalWeight);
+            }
+            int runTime = (int) Math.min(slice, processes.remaining(current));
+            long end = start + runTime;
+            // Arrivals up to the end of the slice are admitted before it is requeued
+            if (!arrivals.settled(end)) return false;
+
+            readyQueue.poll();
+            if (lastProcess != current) {
+                if (lastProcess != -1 && processes.remaining(lastProcess) > 0) {
+                    events.accept(SchedulerEvent.Type.PREEMPT, lastProcess, currentTime, 0);
+                    if (SchedulerCounters.ENABLED) counters.preempted(SchedulerCounters.Cause.QUANTUM_EXPIRED);
+                }
+                processes.dispatch(current, start);
+                events.accept(SchedulerEvent.Type.DISPATCH, current, start, 0);
+                if (SchedulerCounters.ENABLED) {
+                    counters.dispatches++;
+                    if (lastProcess != -1) counters.contextSwitches++;
+                }
+            }
+            processes.setRemaining(current, processes.remaining(current) - runTime);
+            executed += runTime;
+            vruntime[current] += ((long) runTime << VRUNTIME_SHIFT) * NICE_0_WEIGHT / weight;
+            timeline.appendMerged(current, start, end);
+            currentTime = end;
+            lastProcess = current;
+            long leftmost = readyQueue.isEmpty() ? vruntime[current] : vruntime[readyQueue.peek()];
+            minVruntime = Math.max(minVruntime, Math.min(vruntime[current], leftmost));
+            if (minVruntime > VRUNTIME_REBASE) rebase(current);
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.RUN, started);
+
+            admit();
+
+            if (processes.remaining(current) == 0) {
+                completed++;
+                running--;
+                totalWeight -= weight;
+                processes.complete(current, currentTime);
+                events.accept(SchedulerEvent.Type.COMPLETE, current, currentTime, 0);
+                metrics.completed(processes, current);
+                if (SchedulerCounters.ENABLED) counters.completions++;
+            } else {
+                readyQueue.add(current);
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
+            }
+            if (SchedulerCounters.ENABLED) counters.readyQueueRemoves++;
+            return true;
+        }
+
+        @Override
+        public boolean finished() {
+            return arrivals.exhausted() && completed + stolen == arrivals.size();
+        }
+
+        @Override
+        public long time() {
+            return currentTime;
+        }
+
+        @Override
+        public long executedWork() {
+            return executed;
+        }
+
+        @Override
+        public boolean idle() {
+            return !arrivals.hasNext() && completed + stolen == arrivals.size();
+        }
+
+        @Override
+        public int steal() {
+            // Leaves of the heap hold the processes furthest ahead in vruntime
+            for (int slot = readyQueue.size() - 1; slot >= Math.max(0, readyQueue.size() - 2); slot--) {
+                int row = readyQueue.at(slot);
+                if (row != lastProcess) {
+                    readyQueue.remove(row);
+                    running--;
+                    totalWeight -= weight(processes.priority(row));
+                    stolen++;
+                    return row;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Timeline timeline() {
+            return timeline;
+        }
+
+        @Override
+        public ScheduleMetrics metrics() {
+            return metrics;
+        }
+
+        @Override
+        public SchedulerCounters counters() {
+            return counters;
+        }
+
+        // Shifts the live vruntimes (current and the ready set) down by minVruntime; the order is unchanged
+        private void rebase(int current) {
+            vruntime[current] -= minVruntime;
+            for (int slot = 0; slot < readyQueue.size(); slot++) {
+                vruntime[readyQueue.at(slot)] -= minVruntime;
+            }
+            minVruntime = 0;
+        }
+
+        private void admit() {
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+            while (arrivals.hasNext() && arrivals.peekTime() <= currentTime) {
+                int i = arrivals.poll();
+                if (i >= vruntime.length) vruntime = Arrays.copyOf(vruntime, Math.max(i + 1, vruntime.length * 2));
+                vruntime[i] = minVruntime;
+                running++;
+                totalWeight += weight(processes.priority(i));
+                readyQueue.add(i);
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
+            }
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.ADMIT, started);
+        }
+    }
+
+    private void printResults(ProcessTable processes) {
+        try (ReportWriter report = ReportWriter.stdout(ReportWriter.Format.TEXT)) {
+            report.column("Weight", "weight", row -> weight(processes.priority(row)))
+                    .write("Completely Fair Scheduler", processes, timeline, metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
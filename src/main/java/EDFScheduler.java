@@ -0,0 +1,332 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+// Preemptive Earliest Deadline First. The ready set is a heap on (deadline,
+// arrival), so the process due soonest always runs; processes without a
+// deadline sort after all that have one and run first come, first served.
+// A context switch costs contextSwitch as in SJF.
+//
+// Deadline misses are detected as they happen rather than at completion: a
+// second heap holds the admitted, unfinished processes whose deadlines have
+// not passed, and a run segment ends early at the next of those deadlines, so
+// a miss is seen at the moment the deadline goes by with work left, or before
+// the segment when it falls within the context switch. Each miss is a
+// DEADLINE_MISS event dated at the deadline, or when it was noticed if later,
+// and is noted in the table's deadlineMiss column. With maxMisses > 0 the run stops once it has seen
+// that many and counts as finished; processes still unfinished then keep a
+// completion of 0.
+public class EDFScheduler implements Scheduler {
+    private final int maxMisses;
+    private Timeline timeline;
+    private ScheduleMetrics metrics;
+    private boolean stopped;
+    private boolean is_unit_tes;
+
+    public EDFScheduler(boolean is_unit_tes) {
+        this(is_unit_tes, 0);
+    }
+
+    // maxMisses <= 0 runs to the end whatever the misses
+    public EDFScheduler(boolean is_unit_tes, int maxMisses) {
+        this.is_unit_tes = is_unit_tes;
+        this.maxMisses = maxMisses;
+    }
+
+    @Override
+    public String name() {
+        return "EDF";
+    }
+
+    @Override
+    public String configKey() {
+        return "maxMisses=" + maxMisses;
+    }
+
+    @Override
+    public EDFScheduler configure(Map<String, String> settings) {
+        int misses = maxMisses;
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            if (!setting.getKey().equals("maxMisses")) {
+                throw new IllegalArgumentException("Unknown EDF setting " + setting.getKey());
+            }
+            misses = Integer.parseInt(setting.getValue());
+        }
+        return new EDFScheduler(is_unit_tes, misses);
+    }
+
+    @Override
+    public ScheduleResult schedule(Workload workload, ScheduleParams params) {
+        ProcessTable processes = workload.processes.fork();
+        processes.reset();
+        Run run = start(processes, Arrivals.of(processes), params, SchedulerEvent.Sink.NONE);
+        run.drain();
+        return new ScheduleResult(name(), params, processes, run);
+    }
+
+    public List<String> getExecutionOrder() {
+        return timeline.executionOrder();
+    }
+
+    public Timeline getTimeline() {
+        return timeline;
+    }
+
+    public ScheduleMetrics getMetrics() {
+        return metrics;
+    }
+
+    // True when the last run stopped at maxMisses
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public void schedule(List<Process> processes, int contextSwitching) {
+        ProcessTable table = ProcessTable.backing(processes);
+        schedule(table, contextSwitching);
+        table.copyResultsTo(processes);
+    }
+
+    public void schedule(ProcessTable processes, int contextSwitching) {
+        processes.reset();
+        Run run = new Run(processes, Arrivals.of(processes), contextSwitching, maxMisses, SchedulerEvent.Sink.NONE);
+        run.drain();
+        timeline = run.timeline;
+        metrics = run.metrics;
+        stopped = run.stopped;
+
+        if (!is_unit_tes) {
+            printResults(processes, run);
+        }
+    }
+
+    Run start(ProcessTable processes, Arrivals arrivals, ScheduleParams params, SchedulerEvent.Sink events) {
+        return new Run(processes, arrivals, params.contextSwitch, maxMisses, events);
+    }
+
+    static class Run implements SchedulerRun {
+        private final ProcessTable processes;
+        private final Arrivals arrivals;
+        private final int contextSwitching;
+        private final int maxMisses;
+        private final SchedulerEvent.Sink events;
+        private final Timeline timeline;
+        private final ScheduleMetrics metrics = new ScheduleMetrics();
+        private final SchedulerCounters counters = SchedulerCounters.ENABLED ? new SchedulerCounters("EDF") : null;
+        private final IndexedMinHeap readyQueue;
+        // Admitted, unfinished processes with a deadline that has not passed yet
+        private final IndexedMinHeap pending;
+        private long currentTime;
+        private int lastProcess = -1;
+        private int completedProcesses;
+        private int stolen;
+        private long executed;
+        private long misses;
+        private boolean stopped;
+
+        Run(ProcessTable processes, Arrivals arrivals, int contextSwitching, int maxMisses,
+            SchedulerEvent.Sink events) {
+            this.processes = processes;
+            this.arrivals = arrivals;
+            this.contextSwitching = contextSwitching;
+            this.maxMisses = maxMisses;
+            this.events = events;
+            this.timeline = new Timeline(processes);
+            // Ready set keyed on (deadline, arrivalTime), ties keep input order
+            this.readyQueue = new IndexedMinHeap(processes.size(), (a, b) -> {
+                int cmp = Integer.compare(processes.deadline(a), processes.deadline(b));
+                if (cmp == 0) cmp = Integer.compare(processes.arrival(a), processes.arrival(b));
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            });
+            this.pending = new IndexedMinHeap(processes.size(), (a, b) -> {
+                int cmp = Integer.compare(processes.deadline(a), processes.deadline(b));
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            });
+        }
+
+        @Override
+        public boolean step() {
+            if (stopped || !arrivals.settled(currentTime)) return false;
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+            while (arrivals.hasNext() && arrivals.peekTime() <= currentTime) {
+                int row = arrivals.poll();
+                readyQueue.add(row);
+                if (processes.deadline(row) != ProcessTable.NO_DEADLINE) pending.add(row);
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
+            }
+            if (SchedulerCounters.ENABLED) {
+                counters.steps++;
+                counters.time(SchedulerCounters.Phase.ADMIT, started);
+                started = System.nanoTime();
+            }
+            // Arrivals already past their deadline
+            if (detectMisses(currentTime)) return false;
+
+            // Nothing ready: jump straight to the next arrival
+            if (readyQueue.isEmpty()) {
+                if (!arrivals.hasNext()) return false;
+                if (SchedulerCounters.ENABLED) {
+                    counters.idleJumps++;
+                    counters.idleTicks += arrivals.peekTime() - currentTime;
+                }
+                currentTime = arrivals.peekTime();
+                return true;
+            }
+
+            int current = readyQueue.peek();
+            long start = currentTime;
+            if (current != lastProcess && lastProcess != -1) {
+                start += contextSwitching;
+                // Nothing runs during the switch, so deadlines within it are missed already
+                if (detectMisses(start)) return false;
+            }
+
+            // Run until completion, the next arrival (which may preempt) or the next
+            // deadline still pending, whichever comes first.
+            // Arrivals during a context switch are only seen after one unit of work.
+            int runTime = processes.remaining(current);
+            if (!pending.isEmpty()) {
+                runTime = (int) Math.min(runTime, processes.deadline(pending.peek()) - start);
+            }
+            if (!arrivals.hasNext() && !arrivals.settled(start + runTime)) return false;
+            if (arrivals.hasNext()) {
+                long untilArrival = arrivals.peekTime() - start;
+                runTime = (int) Math.min(runTime, Math.max(1, untilArrival));
+            }
+
+            readyQueue.poll();
+            if (current != lastProcess) {
+                if (lastProcess != -1 && processes.remaining(lastProcess) > 0) {
+                    events.accept(SchedulerEvent.Type.PREEMPT, lastProcess, currentTime, 0);
+                    if (SchedulerCounters.ENABLED) counters.preempted(SchedulerCounters.Cause.EARLIER_DEADLINE);
+                }
+                processes.dispatch(current, start);
+                events.accept(SchedulerEvent.Type.DISPATCH, current, start, 0);
+                if (SchedulerCounters.ENABLED) {
+                    counters.dispatches++;
+                    if (lastProcess != -1) counters.contextSwitches++;
+                }
+            }
+            processes.setRemaining(current, processes.remaining(current) - runTime);
+            executed += runTime;
+            timeline.appendMerged(current, start, start + runTime);
+            currentTime = start + runTime;
+            lastProcess = current;
+
+            if (processes.remaining(current) == 0) {
+                completedProcesses++;
+                processes.complete(current, currentTime);
+                events.accept(SchedulerEvent.Type.COMPLETE, current, currentTime, 0);
+                metrics.completed(processes, current);
+                if (pending.contains(current)) pending.remove(current);
+                if (SchedulerCounters.ENABLED) counters.completions++;
+            } else {
+                readyQueue.add(current);
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
+            }
+            if (SchedulerCounters.ENABLED) {
+                counters.readyQueueRemoves++;
+                counters.time(SchedulerCounters.Phase.RUN, started);
+            }
+            detectMisses(currentTime);
+            return true;
+        }
+
+        // Deadline misses seen so far, including those of processes yet to complete
+        long misses() {
+            return misses;
+        }
+
+        boolean stopped() {
+            return stopped;
+        }
+
+        // A run stopped at maxMisses has finished too
+        @Override
+        public boolean finished() {
+            return stopped || arrivals.exhausted() && completedProcesses + stolen == arrivals.size();
+        }
+
+        @Override
+        public long time() {
+            return currentTime;
+        }
+
+        @Override
+        public long executedWork() {
+            return executed;
+        }
+
+        @Override
+        public boolean idle() {
+            return stopped || !arrivals.hasNext() && completedProcesses + stolen == arrivals.size();
+        }
+
+        @Override
+        public int steal() {
+            // Leaves of the heap hold the later deadlines
+            if (stopped) return -1;
+            for (int slot = readyQueue.size() - 1; slot >= Math.max(0, readyQueue.size() - 2); slot--) {
+                int row = readyQueue.at(slot);
+                if (row != lastProcess) {
+                    readyQueue.remove(row);
+                    if (pending.contains(row)) pending.remove(row);
+                    stolen++;
+                    return row;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Timeline timeline() {
+            return timeline;
+        }
+
+        @Override
+        public ScheduleMetrics metrics() {
+            return metrics;
+        }
+
+        @Override
+        public SchedulerCounters counters() {
+            return counters;
+        }
+
+        // Takes every pending deadline up to time as a miss, noticed by then. Returns
+        // true once the run has stopped at maxMisses.
+        private boolean detectMisses(long time) {
+            while (!stopped && !pending.isEmpty() && processes.deadline(pending.peek()) <= time) {
+                missed(pending.poll(), currentTime);
+            }
+            return stopped;
+        }
+
+        // A miss noticed at time. Within a context switch that is its start, so the
+        // miss is dated at the deadline if that comes later.
+        private void missed(int row, long time) {
+            misses++;
+            long missTime = Math.max(processes.deadline(row), time);
+            processes.missDeadline(row, missTime);
+            events.accept(SchedulerEvent.Type.DEADLINE_MISS, row, missTime, processes.deadline(row));
+            if (SchedulerCounters.ENABLED) counters.deadlineMisses++;
+            if (maxMisses > 0 && misses >= maxMisses) {
+                stopped = true;
+                // Every late completion was a miss here first; the rest will not complete
+                metrics.unfinishedMisses(misses - metrics.deadlineMisses());
+            }
+        }
+    }
+
+    private void printResults(ProcessTable processes, Run run) {
+        try (ReportWriter report = ReportWriter.stdout(ReportWriter.Format.TEXT)) {
+            report.deadlines(processes).write("EDF (Preemptive)", processes, timeline, metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (run.stopped) {
+            System.out.println("Stopped at time " + run.currentTime + " after " + run.misses + " deadline misses");
+        }
+    }
+}
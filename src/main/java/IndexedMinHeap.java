@@ -0,0 +1,113 @@
+import java.util.Arrays;
+
+// Binary min-heap over non-negative integer ids. Keeps each id's slot so
+// contains/remove/update are O(1)/O(log n) instead of a linear scan. Adding an
+// id at or beyond the capacity grows it.
+class IndexedMinHeap {
+    interface IdComparator {
+        int compare(int a, int b);
+    }
+
+    private int[] heap;
+    private int[] pos;
+    private final IdComparator comparator;
+    private int size;
+
+    IndexedMinHeap(int capacity, IdComparator comparator) {
+        capacity = Math.max(1, capacity);
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.comparator = comparator;
+        Arrays.fill(pos, -1);
+    }
+
+    boolean isEmpty() { return size == 0; }
+    int size() { return size; }
+    boolean contains(int id) { return id < pos.length && pos[id] >= 0; }
+
+    // Id in the given heap slot, 0 <= slot < size(); the last slots hold leaves
+    int at(int slot) {
+        return heap[slot];
+    }
+
+    int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    int poll() {
+        if (size == 0) return -1;
+        int top = heap[0];
+        remove(top);
+        return top;
+    }
+
+    void add(int id) {
+        if (id >= pos.length) grow(id);
+        heap[size] = id;
+        pos[id] = size;
+        siftUp(size++);
+    }
+
+    void remove(int id) {
+        if (id >= pos.length) return;
+        int i = pos[id];
+        if (i < 0) return;
+        pos[id] = -1;
+        int last = heap[--size];
+        if (i == size) return;
+        heap[i] = last;
+        pos[last] = i;
+        update(last);
+    }
+
+    // Call after the key of an id already in the heap has changed
+    void update(int id) {
+        if (id >= pos.length) return;
+        int i = pos[id];
+        if (i < 0) return;
+        siftDown(siftUp(i));
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void grow(int id) {
+        int capacity = Math.max(id + 1, pos.length * 2);
+        heap = Arrays.copyOf(heap, capacity);
+        int old = pos.length;
+        pos = Arrays.copyOf(pos, capacity);
+        Arrays.fill(pos, old, capacity, -1);
+    }
+
+    private int siftUp(int i) {
+        int id = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (comparator.compare(id, heap[parent]) >= 0) break;
+            heap[i] = heap[parent];
+            pos[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        pos[id] = i;
+        return i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && comparator.compare(heap[right], heap[child]) < 0) child = right;
+            if (comparator.compare(id, heap[child]) <= 0) break;
+            heap[i] = heap[child];
+            pos[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+}
@@ -0,0 +1,47 @@
+// FIFO queue of ints backed by a circular array; grows when full.
+class IntRingBuffer {
+    private int[] elements;
+    private int head;
+    private int size;
+
+    IntRingBuffer(int capacity) {
+        this.elements = new int[Math.max(1, capacity)];
+    }
+
+    boolean isEmpty() { return size == 0; }
+    int size() { return size; }
+
+    void add(int value) {
+        if (size == elements.length) grow();
+        int tail = head + size;
+        if (tail >= elements.length) tail -= elements.length;
+        elements[tail] = value;
+        size++;
+    }
+
+    int peek() {
+        return size == 0 ? -1 : elements[head];
+    }
+
+    int poll() {
+        if (size == 0) return -1;
+        int value = elements[head];
+        if (++head == elements.length) head = 0;
+        size--;
+        return value;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        int[] bigger = new int[elements.length * 2];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, bigger, 0, firstPart);
+        System.arraycopy(elements, 0, bigger, firstPart, size - firstPart);
+        elements = bigger;
+        head = 0;
+    }
+}
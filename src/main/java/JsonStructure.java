@@ -30,6 +30,8 @@ public class JsonStructure {
         public int burst;
         public int priority;
         public int quantum;
+        // Optional absolute completion deadline, used by EDF
+        public Integer deadline;
     }
 
     // Output Matcher
@@ -39,6 +41,11 @@ public class JsonStructure {
         public List<ProcessResult> processResults;
         public double averageWaitingTime;
         public double averageTurnaroundTime;
+        // Optional, checked only when given: Jain's fairness index, to within Verifier.FAIRNESS_TOLERANCE
+        public Double fairness;
+        // Optional: ScheduleMetrics.deadlineMisses() and ScheduleResult.stopped()
+        public Long deadlineMisses;
+        public Boolean stopped;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -47,5 +54,7 @@ public class JsonStructure {
         public int waitingTime;
         public int turnaroundTime;
         public List<Integer> quantumHistory;
+        // Optional: ScheduleResult.deadlineMissTime(), when its deadline miss was reported, -1 for none
+        public Long deadlineMissTime;
     }
 }
\ No newline at end of file
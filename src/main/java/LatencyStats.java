@@ -0,0 +1,75 @@
+// Running statistics for one latency measure, in constant memory. Count, mean
+// and variance use Welford's method; percentiles come from a log-bucketed
+// histogram: values below 64 are exact, larger ones fall into 32 buckets per
+// power of two, so a reported percentile is within about 3% of the true value.
+public class LatencyStats {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (63 - SUB_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private double mean;
+    private double m2;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public void record(long value) {
+        value = Math.max(0, value);
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        buckets[bucket(value)]++;
+    }
+
+    public long count() { return count; }
+    public double mean() { return mean; }
+    public long min() { return count == 0 ? 0 : min; }
+    public long max() { return count == 0 ? 0 : max; }
+
+    // Sample variance
+    public double variance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    // Smallest recorded value v with at least p of all values <= v, rounded up to its bucket.
+    // p is a fraction, e.g. 0.999 for p99.9.
+    public long percentile(double p) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) return Math.min(max, Math.max(min, upperBound(i)));
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean=%.2f sd=%.2f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                mean(), standardDeviation(), percentile(0.50), percentile(0.90), percentile(0.99),
+                percentile(0.999), max());
+    }
+
+    private static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return (shift << SUB_BITS) + (int) (value >>> shift);
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) return bucket;
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long mantissa = bucket - ((long) shift << SUB_BITS);
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
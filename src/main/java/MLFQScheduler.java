@@ -0,0 +1,390 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Multi-Level Feedback Queue. Level 0 is the most urgent:
+//   - a new process enters level 0
+//   - the lowest non-empty level runs, round robin within the level
+//   - a process that uses up its level's quantum moves one level down
+//     (the last level is plain round robin)
+//   - a process below level 0 is preempted as soon as a process arrives;
+//     it keeps what is left of its quantum and rejoins the back of its level
+//   - every boostInterval all processes go back to level 0 with a fresh
+//     quantum, at the first decision at or after the boost time
+//
+// Each level is a FIFO linked through a per-process next array and a bitmap
+// holds the non-empty levels, so the next process is found in O(1) whatever
+// the number of processes. A boost splices the lower levels onto level 0 in
+// O(levels) and hands out fresh quanta lazily, by boost epoch.
+// Without explicit quanta, level l gets rrQuantum << l; a context switch costs
+// contextSwitch as in RR.
+public class MLFQScheduler implements Scheduler {
+    static final int DEFAULT_LEVELS = 3;
+    // Default boost period, in base quanta
+    static final int DEFAULT_BOOST_QUANTA = 20;
+
+    private final int levels;
+    private final int[] quanta;
+    private final int boostInterval;
+    private Timeline timeline;
+    private ScheduleMetrics metrics;
+    private boolean is_unit_tes;
+
+    public MLFQScheduler(boolean is_unit_tes) {
+        this(is_unit_tes, null, 0);
+    }
+
+    // quanta has one entry per level (at most 64) or is null for the defaults;
+    // boostInterval <= 0 means DEFAULT_BOOST_QUANTA base quanta
+    public MLFQScheduler(boolean is_unit_tes, int[] quanta, int boostInterval) {
+        if (quanta != null && (quanta.length == 0 || quanta.length > Long.SIZE)) {
+            throw new IllegalArgumentException("MLFQ needs 1 to 64 levels, got " + quanta.length);
+        }
+        if (quanta != null && Arrays.stream(quanta).anyMatch(q -> q < 1)) {
+            throw new IllegalArgumentException("MLFQ quanta must be positive: " + Arrays.toString(quanta));
+        }
+        this.is_unit_tes = is_unit_tes;
+        this.levels = quanta == null ? DEFAULT_LEVELS : quanta.length;
+        this.quanta = quanta == null ? null : quanta.clone();
+        this.boostInterval = boostInterval;
+    }
+
+    @Override
+    public String name() {
+        return "MLFQ";
+    }
+
+    @Override
+    public String configKey() {
+        return (quanta == null ? "" : "quanta=" + join(quanta) + " ") + "boostInterval=" + boostInterval;
+    }
+
+    // quanta is a comma separated list, one per level
+    @Override
+    public MLFQScheduler configure(Map<String, String> settings) {
+        int[] levelQuanta = quanta;
+        int boost = boostInterval;
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            switch (setting.getKey()) {
+                case "quanta":
+                    levelQuanta = Arrays.stream(setting.getValue().split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "boostInterval":
+                    boost = Integer.parseInt(setting.getValue());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown MLFQ setting " + setting.getKey());
+            }
+        }
+        return new MLFQScheduler(is_unit_tes, levelQuanta, boost);
+    }
+
+    private static String join(int[] values) {
+        StringBuilder joined = new StringBuilder();
+        for (int value : values) joined.append(joined.length() == 0 ? "" : ",").append(value);
+        return joined.toString();
+    }
+
+    @Override
+    public ScheduleResult schedule(Workload workload, ScheduleParams params) {
+        ProcessTable processes = workload.processes.fork();
+        processes.reset();
+        Run run = start(processes, Arrivals.of(processes), params, SchedulerEvent.Sink.NONE);
+        run.drain();
+        return new ScheduleResult(name(), params, processes, run);
+    }
+
+    public List<String> getExecutionOrder() {
+        return timeline.executionOrder();
+    }
+
+    public Timeline getTimeline() {
+        return timeline;
+    }
+
+    public ScheduleMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void schedule(List<Process> processes, int quantum, int contextSwitching) {
+        ProcessTable table = ProcessTable.backing(processes);
+        schedule(table, quantum, contextSwitching);
+        table.copyResultsTo(processes);
+    }
+
+    public void schedule(ProcessTable processes, int quantum, int contextSwitching) {
+        processes.reset();
+        Run run = start(processes, Arrivals.of(processes), new ScheduleParams(contextSwitching, quantum, 0),
+                SchedulerEvent.Sink.NONE);
+        run.drain();
+        timeline = run.timeline;
+        metrics = run.metrics;
+
+        if (!is_unit_tes) {
+            printResults(processes, run.level);
+        }
+    }
+
+    Run start(ProcessTable processes, Arrivals arrivals, ScheduleParams params, SchedulerEvent.Sink events) {
+        int[] levelQuanta = quanta;
+        if (levelQuanta == null) {
+            if (params.rrQuantum < 1) throw new IllegalArgumentException("MLFQ needs rrQuantum >= 1");
+            levelQuanta = new int[levels];
+            for (int level = 0; level < levels; level++) levelQuanta[level] = params.rrQuantum << level;
+        }
+        long boost = boostInterval > 0 ? boostInterval : (long) DEFAULT_BOOST_QUANTA * levelQuanta[0];
+        return new Run(processes, arrivals, levelQuanta, boost, params.contextSwitch, events);
+    }
+
+    static class Run implements SchedulerRun {
+        private final ProcessTable processes;
+        private final Arrivals arrivals;
+        private final int[] quanta;
+        private final long boostInterval;
+        private final int contextSwitching;
+        private final SchedulerEvent.Sink events;
+        private final Timeline timeline;
+        private final ScheduleMetrics metrics = new ScheduleMetrics();
+        private final SchedulerCounters counters = SchedulerCounters.ENABLED ? new SchedulerCounters("MLFQ") : null;
+
+        // Level l's FIFO runs from head[l] through next[] to tail[l]
+        private final int[] head;
+        private final int[] tail;
+        private int[] next;
+        // Bit l is set while level l has processes waiting
+        private long nonEmpty;
+        // Per process: its level and the part of that level's quantum it has used,
+        // both void once a boost has happened since epoch
+        private int[] level;
+        private int[] used;
+        private int[] epoch;
+        private int boosts;
+
+        private long currentTime;
+        private long nextBoost;
+        private int lastProcess = -1;
+        private int completed;
+        private int stolen;
+        private long executed;
+
+        Run(ProcessTable processes, Arrivals arrivals, int[] quanta, long boostInterval, int contextSwitching,
+            SchedulerEvent.Sink events) {
+            this.processes = processes;
+            this.arrivals = arrivals;
+            this.quanta = quanta;
+            this.boostInterval = boostInterval;
+            this.contextSwitching = contextSwitching;
+            this.events = events;
+            this.timeline = new Timeline(processes);
+            this.nextBoost = boostInterval;
+            int n = Math.max(1, processes.size());
+            this.level = new int[n];
+            this.used = new int[n];
+            this.epoch = new int[n];
+            this.next = new int[n];
+            this.head = new int[quanta.length];
+            this.tail = new int[quanta.length];
+        }
+
+        @Override
+        public boolean step() {
+            if (!arrivals.settled(currentTime)) return false;
+            admit();
+            if (SchedulerCounters.ENABLED) counters.steps++;
+            if (nonEmpty == 0) {
+                // Idle: jump straight to the next arrival
+                if (!arrivals.hasNext()) return false;
+                if (SchedulerCounters.ENABLED) {
+                    counters.idleJumps++;
+                    counters.idleTicks += arrivals.peekTime() - currentTime;
+                }
+                currentTime = arrivals.peekTime();
+                return true;
+            }
+            if (currentTime >= nextBoost) boost();
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+
+            int top = Long.numberOfTrailingZeros(nonEmpty);
+            int current = head[top];
+            level[current] = top;
+            if (epoch[current] != boosts) {
+                epoch[current] = boosts;
+                used[current] = 0;
+            }
+            long start = currentTime;
+            if (lastProcess != -1 && lastProcess != current) {
+                start += contextSwitching;
+            }
+            int slice = Math.min(quanta[top] - used[current], processes.remaining(current));
+            long end = start + slice;
+            // Arrivals up to the end of the slice either cut it short or queue ahead of it
+            if (!arrivals.settled(end)) return false;
+            boolean cut = false;
+            if (top > 0 && arrivals.hasNext() && arrivals.peekTime() < end) {
+                // Runs at least one unit, so an arrival during the context switch cannot starve it
+                end = Math.max(start + 1, arrivals.peekTime());
+                slice = (int) (end - start);
+                cut = slice < processes.remaining(current) && used[current] + slice < quanta[top];
+            }
+
+            poll(top);
+            if (lastProcess != current) {
+                if (lastProcess != -1 && processes.remaining(lastProcess) > 0) {
+                    events.accept(SchedulerEvent.Type.PREEMPT, lastProcess, currentTime, 0);
+                }
+                processes.dispatch(current, start);
+                events.accept(SchedulerEvent.Type.DISPATCH, current, start, 0);
+                if (SchedulerCounters.ENABLED) {
+                    counters.dispatches++;
+                    if (lastProcess != -1) counters.contextSwitches++;
+                }
+            }
+            processes.setRemaining(current, processes.remaining(current) - slice);
+            used[current] += slice;
+            executed += slice;
+            timeline.appendMerged(current, start, end);
+            currentTime = end;
+            lastProcess = current;
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.RUN, started);
+
+            // Arrivals up to the end of the slice queue ahead of the current process
+            admit();
+
+            if (processes.remaining(current) == 0) {
+                completed++;
+                processes.complete(current, currentTime);
+                events.accept(SchedulerEvent.Type.COMPLETE, current, currentTime, 0);
+                metrics.completed(processes, current);
+                if (SchedulerCounters.ENABLED) counters.completions++;
+            } else if (cut) {
+                push(current, top);
+                if (SchedulerCounters.ENABLED) counters.preempted(SchedulerCounters.Cause.HIGHER_PRIORITY);
+            } else {
+                // Quantum used up: one level down, or round robin at the bottom
+                used[current] = 0;
+                push(current, Math.min(top + 1, quanta.length - 1));
+                if (SchedulerCounters.ENABLED) counters.preempted(SchedulerCounters.Cause.QUANTUM_EXPIRED);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean finished() {
+            return arrivals.exhausted() && completed + stolen == arrivals.size();
+        }
+
+        @Override
+        public long time() {
+            return currentTime;
+        }
+
+        @Override
+        public long executedWork() {
+            return executed;
+        }
+
+        @Override
+        public boolean idle() {
+            return !arrivals.hasNext() && completed + stolen == arrivals.size();
+        }
+
+        @Override
+        public int steal() {
+            // The head of the least urgent level; the last process to run is never taken
+            if (nonEmpty == 0) return -1;
+            int bottom = Long.SIZE - 1 - Long.numberOfLeadingZeros(nonEmpty);
+            if (head[bottom] == lastProcess) return -1;
+            stolen++;
+            return poll(bottom);
+        }
+
+        @Override
+        public Timeline timeline() {
+            return timeline;
+        }
+
+        @Override
+        public ScheduleMetrics metrics() {
+            return metrics;
+        }
+
+        @Override
+        public SchedulerCounters counters() {
+            return counters;
+        }
+
+        private void admit() {
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+            while (arrivals.hasNext() && arrivals.peekTime() <= currentTime) {
+                int i = arrivals.poll();
+                if (i >= level.length) {
+                    int capacity = Math.max(i + 1, level.length * 2);
+                    level = Arrays.copyOf(level, capacity);
+                    used = Arrays.copyOf(used, capacity);
+                    epoch = Arrays.copyOf(epoch, capacity);
+                    next = Arrays.copyOf(next, capacity);
+                }
+                epoch[i] = boosts;
+                used[i] = 0;
+                push(i, 0);
+            }
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.ADMIT, started);
+        }
+
+        // Every waiting process back to level 0, upper levels first so their order is kept.
+        // Counted as an aging update.
+        private void boost() {
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+            int first = Long.numberOfTrailingZeros(nonEmpty);
+            int last = first;
+            for (int l = first + 1; l < head.length; l++) {
+                if ((nonEmpty & (1L << l)) == 0) continue;
+                next[tail[last]] = head[l];
+                last = l;
+            }
+            head[0] = head[first];
+            tail[0] = tail[last];
+            nonEmpty = 1;
+            boosts++;
+            nextBoost = (currentTime / boostInterval + 1) * boostInterval;
+            if (SchedulerCounters.ENABLED) {
+                counters.agingUpdates++;
+                counters.time(SchedulerCounters.Phase.AGING, started);
+            }
+        }
+
+        private void push(int row, int l) {
+            level[row] = l;
+            if ((nonEmpty & (1L << l)) == 0) {
+                head[l] = row;
+                nonEmpty |= 1L << l;
+            } else {
+                next[tail[l]] = row;
+            }
+            tail[l] = row;
+            if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
+        }
+
+        private int poll(int l) {
+            int row = head[l];
+            if (row == tail[l]) {
+                nonEmpty &= ~(1L << l);
+            } else {
+                head[l] = next[row];
+            }
+            if (SchedulerCounters.ENABLED) counters.readyQueueRemoves++;
+            return row;
+        }
+    }
+
+    private void printResults(ProcessTable processes, int[] level) {
+        try (ReportWriter report = ReportWriter.stdout(ReportWriter.Format.TEXT)) {
+            report.column("Final Level", "finalLevel", row -> level[row])
+                    .write("Multi-Level Feedback Queue", processes, timeline, metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
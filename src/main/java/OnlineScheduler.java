@@ -0,0 +1,91 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Online mode: processes are submitted as they arrive and the scheduler's
+// decisions are pulled as DISPATCH / PREEMPT / COMPLETE (and, for AG, QUANTUM)
+// events. The simulation only advances while events are being pulled, and only
+// as far as the known arrivals allow:
+//
+//   submit(...)    a process arriving at the given time (in time order)
+//   advanceTo(t)   nothing else arrives at or before t
+//   close()        nothing else arrives at all
+//
+// events() iterates over the decisions that can be taken with what is known so
+// far; once it runs dry, submit or advance and iterate again. With every
+// process submitted and the stream closed, the events and timeline match a
+// batch run of the same scheduler. Not thread-safe.
+public class OnlineScheduler {
+    private final ProcessTable processes = new ProcessTable();
+    private final Arrivals arrivals = new Arrivals(processes);
+    private final ArrayDeque<SchedulerEvent> pending = new ArrayDeque<>();
+    private final SchedulerRun run;
+
+    // scheduler is one of SJF, RR, Priority, AG, MLFQ, CFS, EDF
+    public OnlineScheduler(String scheduler, ScheduleParams params) {
+        SchedulerEvent.Sink sink = (type, row, time, value) ->
+                pending.add(new SchedulerEvent(type, processes.name(row), row, time, value));
+        run = SchedulerRun.start(scheduler, processes, arrivals, params, sink);
+    }
+
+    // Returns the row of the new process. Arrivals must not go back in time or
+    // fall at or before the last advanceTo.
+    public int submit(String name, int arrival, int burst, int priority, int quantum) {
+        return submit(name, arrival, burst, priority, quantum, ProcessTable.NO_DEADLINE);
+    }
+
+    // deadline is an absolute time, or ProcessTable.NO_DEADLINE
+    public int submit(String name, int arrival, int burst, int priority, int quantum, int deadline) {
+        arrivals.checkNext(arrival);
+        int row = processes.add(name, arrival, burst, priority, quantum, deadline);
+        arrivals.add(row);
+        return row;
+    }
+
+    public void advanceTo(long time) {
+        arrivals.advanceTo(time);
+    }
+
+    public void close() {
+        arrivals.close();
+    }
+
+    public Iterator<SchedulerEvent> events() {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                while (pending.isEmpty() && run.step()) { }
+                run.publishCounters();
+                return !pending.isEmpty();
+            }
+
+            @Override
+            public SchedulerEvent next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return pending.poll();
+            }
+        };
+    }
+
+    // True once the stream is closed and every submitted process has completed
+    public boolean isFinished() {
+        return pending.isEmpty() && run.finished();
+    }
+
+    // Read-only view of the processes submitted so far and their results
+    public int size() { return processes.size(); }
+    public long completionTime(int row) { return processes.completion(row); }
+    public long waitingTime(int row) { return processes.waiting(row); }
+    public long turnaroundTime(int row) { return processes.turnaround(row); }
+
+    public long responseTime(int row) { return processes.response(row); }
+
+    // Statistics over the processes completed so far
+    public ScheduleMetrics metrics() {
+        return run.metrics();
+    }
+
+    public Timeline timeline() {
+        return run.timeline();
+    }
+}
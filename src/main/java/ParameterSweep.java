@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+// Runs one scheduler over a grid of rrQuantum x agingInterval x contextSwitch
+// values. The workload is loaded and sorted by arrival once; every grid point
+// then runs on its own fork of it, in parallel on a fork-join pool.
+// Parameters the scheduler does not read are not swept, so e.g. an SJF sweep
+// only varies contextSwitch.
+public class ParameterSweep {
+
+    public static class Point {
+        public final ScheduleParams params;
+        public final double averageWaitingTime;
+        public final double averageTurnaroundTime;
+        public final long p99WaitingTime;
+        public final long maxWaitingTime;
+        public final long p99TurnaroundTime;
+        public final long maxTurnaroundTime;
+
+        Point(ScheduleResult result) {
+            ScheduleMetrics metrics = result.metrics();
+            this.params = result.params();
+            this.averageWaitingTime = metrics.waiting.mean();
+            this.averageTurnaroundTime = metrics.turnaround.mean();
+            this.p99WaitingTime = metrics.waiting.percentile(0.99);
+            this.maxWaitingTime = metrics.waiting.max();
+            this.p99TurnaroundTime = metrics.turnaround.percentile(0.99);
+            this.maxTurnaroundTime = metrics.turnaround.max();
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public ParameterSweep(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ParameterSweep <workload.json|.bin> <SJF|RR|Priority|AG|MLFQ|CFS|EDF>"
+                    + " [--rrQuantum a:b[:step]] [--agingInterval a:b[:step]] [--contextSwitch a:b[:step]]");
+            return;
+        }
+        Workload workload = BatchRunner.load(Path.of(args[0]));
+        Scheduler scheduler = BatchRunner.scheduler(args[1]);
+        int[] rrQuanta = {workload.rrQuantum};
+        int[] agingIntervals = {workload.agingInterval};
+        int[] contextSwitches = {workload.contextSwitch};
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--rrQuantum": rrQuanta = parseRange(args[i], args[i + 1], 1); break;
+                case "--agingInterval": agingIntervals = parseRange(args[i], args[i + 1], 1); break;
+                case "--contextSwitch": contextSwitches = parseRange(args[i], args[i + 1], 0); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        ParameterSweep sweep = new ParameterSweep(Runtime.getRuntime().availableProcessors());
+        try {
+            print(scheduler.name(), sweep.run(workload, scheduler, rrQuanta, agingIntervals, contextSwitches));
+        } finally {
+            sweep.shutdown();
+        }
+    }
+
+    // "a:b" or "a:b:step", inclusive; a single value is a range of one. Every value
+    // must be at least min: rrQuantum and agingInterval 1, contextSwitch 0.
+    static int[] parseRange(String option, String range, int min) {
+        String[] parts = range.split(":");
+        int from, to, step;
+        try {
+            from = Integer.parseInt(parts[0]);
+            to = parts.length > 1 ? Integer.parseInt(parts[1]) : from;
+            step = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad range for " + option + ": " + range);
+        }
+        if (step <= 0 || to < from) throw new IllegalArgumentException("Bad range for " + option + ": " + range);
+        if (from < min) {
+            throw new IllegalArgumentException(option + " must be at least " + min + ", got " + range);
+        }
+        int[] values = new int[(to - from) / step + 1];
+        for (int i = 0; i < values.length; i++) values[i] = from + i * step;
+        return values;
+    }
+
+    // Results come back in grid order: contextSwitch, then rrQuantum, then agingInterval
+    public List<Point> run(Workload workload, Scheduler scheduler, int[] rrQuanta, int[] agingIntervals,
+                           int[] contextSwitches) {
+        workload.processes.sortedByArrival();
+        ScheduleParams base = ScheduleParams.of(workload);
+        // MLFQ's level quanta are multiples of rrQuantum, CFS's minimum granularity is rrQuantum
+        boolean rr = scheduler.name().equals("RR") || scheduler.name().equals("MLFQ")
+                || scheduler.name().equals("CFS");
+        boolean priority = scheduler.name().equals("Priority");
+        boolean ag = scheduler.name().equals("AG");
+
+        List<ScheduleParams> grid = new ArrayList<>();
+        for (int contextSwitch : ag ? new int[]{base.contextSwitch} : contextSwitches) {
+            for (int rrQuantum : rr ? rrQuanta : new int[]{base.rrQuantum}) {
+                for (int agingInterval : priority ? agingIntervals : new int[]{base.agingInterval}) {
+                    grid.add(new ScheduleParams(contextSwitch, rrQuantum, agingInterval));
+                }
+            }
+        }
+
+        List<CompletableFuture<Point>> tasks = new ArrayList<>();
+        for (ScheduleParams params : grid) {
+            tasks.add(CompletableFuture.supplyAsync(() -> new Point(scheduler.schedule(workload, params)), pool));
+        }
+        List<Point> points = new ArrayList<>();
+        for (CompletableFuture<Point> task : tasks) points.add(task.join());
+        return points;
+    }
+
+    // Lowest average waiting time, then lowest average turnaround
+    public static Point best(List<Point> points) {
+        return points.stream()
+                .min(Comparator.comparingDouble((Point p) -> p.averageWaitingTime)
+                        .thenComparingDouble(p -> p.averageTurnaroundTime))
+                .orElse(null);
+    }
+
+    public static void print(String scheduler, List<Point> points) {
+        System.out.println("\n========== " + scheduler + " Parameter Sweep ==========");
+        System.out.printf("%-6s %-10s %-7s %-10s %-9s %-9s %-13s %-9s %-9s%n", "cs", "rrQuantum", "aging",
+                "avgWait", "p99Wait", "maxWait", "avgTurnaround", "p99Turn", "maxTurn");
+        for (Point p : points) printPoint(p);
+        Point best = best(points);
+        if (best != null) {
+            System.out.println("Best configuration (lowest average waiting time):");
+            printPoint(best);
+        }
+    }
+
+    private static void printPoint(Point p) {
+        System.out.printf("%-6d %-10d %-7d %-10.2f %-9d %-9d %-13.2f %-9d %-9d%n",
+                p.params.contextSwitch, p.params.rrQuantum, p.params.agingInterval,
+                p.averageWaitingTime, p.p99WaitingTime, p.maxWaitingTime,
+                p.averageTurnaroundTime, p.p99TurnaroundTime, p.maxTurnaroundTime);
+    }
+}
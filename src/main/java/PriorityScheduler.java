@@ -1,155 +1,309 @@
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 
-class PriorityScheduler {
-    private List<String> executionOrder = new ArrayList<>();
+class PriorityScheduler implements Scheduler {
+    private Timeline timeline;
+    private ScheduleMetrics metrics;
     private boolean is_unit_tes;
-    private int agingInterval;
 
     PriorityScheduler(boolean is_unit_tes) {
         this.is_unit_tes = is_unit_tes;
     }
 
+    @Override
+    public String name() {
+        return "Priority";
+    }
+
+    @Override
+    public ScheduleResult schedule(Workload workload, ScheduleParams params) {
+        ProcessTable processes = workload.processes.fork();
+        processes.reset();
+        Run run = new Run(processes, Arrivals.of(processes), params.contextSwitch, params.agingInterval,
+                SchedulerEvent.Sink.NONE);
+        run.drain();
+        return new ScheduleResult(name(), params, processes, run);
+    }
+
     List<String> getExecutionOrder() {
-        return executionOrder;
+        return timeline.executionOrder();
+    }
+
+    Timeline getTimeline() {
+        return timeline;
+    }
+
+    ScheduleMetrics getMetrics() {
+        return metrics;
     }
 
     public void schedule(List<Process> processes, int contextSwitchTime, int agingInterval) {
-        executionOrder.clear();
-        this.agingInterval = agingInterval;
-
-        // Reset all processes and track input order
-        for (int i = 0; i < processes.size(); i++) {
-            Process p = processes.get(i);
-            p.reset();
-            p.setRemainingTime(p.getBurstTime());
+        ProcessTable table = ProcessTable.backing(processes);
+        schedule(table, contextSwitchTime, agingInterval);
+        table.copyResultsTo(processes);
+    }
+
+    public void schedule(ProcessTable processes, int contextSwitchTime, int agingInterval) {
+        // Reset all processes
+        processes.reset();
+        Run run = new Run(processes, Arrivals.of(processes), contextSwitchTime, agingInterval,
+                SchedulerEvent.Sink.NONE);
+        run.drain();
+        timeline = run.timeline;
+        metrics = run.metrics;
+
+        if (!is_unit_tes) {
+            printResults(processes, run.effectivePriority);
         }
+    }
+
+    static class Run implements SchedulerRun {
+        private final ProcessTable processes;
+        private final Arrivals arrivals;
+        private final int contextSwitchTime;
+        private final int agingInterval;
+        private final SchedulerEvent.Sink events;
+        private final Timeline timeline;
+        private final ScheduleMetrics metrics = new ScheduleMetrics();
+        private final SchedulerCounters counters = SchedulerCounters.ENABLED ? new SchedulerCounters("Priority") : null;
+
+        // Original priorities are kept in the table; aging works on a copy.
+        // Aging is applied lazily: each waiting process has one pending aging boundary.
+        private long[] lastAgeTime;
+        private int[] effectivePriority;
+        private long[] nextAgeTime;
+        private final IndexedMinHeap readyQueue;
+        private final IndexedMinHeap agingQueue;
 
-        // Store original priorities and track last aging time
-        int[] lastAgeTime = new int[processes.size()];
-        int[] effectivePriority = new int[processes.size()];
-        for (int i = 0; i < processes.size(); i++) {
-            effectivePriority[i] = processes.get(i).getPriority();
-            lastAgeTime[i] = processes.get(i).getArrivalTime();
+        private int completed;
+        private int stolen;
+        private long executed;
+        private long time;
+        private int current = -1;
+        private int lastRecorded = -1;
+
+        Run(ProcessTable processes, Arrivals arrivals, int contextSwitchTime, int agingInterval,
+            SchedulerEvent.Sink events) {
+            this.processes = processes;
+            this.arrivals = arrivals;
+            this.contextSwitchTime = contextSwitchTime;
+            this.agingInterval = agingInterval;
+            this.events = events;
+            this.timeline = new Timeline(processes);
+
+            int n = Math.max(1, processes.size());
+            lastAgeTime = new long[n];
+            effectivePriority = new int[n];
+            nextAgeTime = new long[n];
+
+            // Highest priority first (lowest number), then earliest arrival, then input order
+            readyQueue = new IndexedMinHeap(n, (a, b) -> {
+                int cmp = Integer.compare(effectivePriority[a], effectivePriority[b]);
+                if (cmp == 0) cmp = Integer.compare(processes.arrival(a), processes.arrival(b));
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            });
+            // Waiting processes ordered by their next aging boundary
+            agingQueue = new IndexedMinHeap(n, (a, b) -> {
+                int cmp = Long.compare(nextAgeTime[a], nextAgeTime[b]);
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            });
         }
 
-        int time = 0;
-        Process current = null;
-        String lastRecorded = null;
-
-        while (true) {
-            // Check if all processes are done
-            boolean allDone = true;
-            for (Process p : processes) {
-                if (p.getRemainingTime() > 0) {
-                    allDone = false;
-                    break;
-                }
+        @Override
+        public boolean step() {
+            if (!arrivals.settled(time)) return false;
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+
+            // Admit arrived processes
+            while (arrivals.hasNext() && arrivals.peekTime() <= time) {
+                int i = arrivals.poll();
+                if (i >= effectivePriority.length) grow(i);
+                effectivePriority[i] = processes.priority(i);
+                lastAgeTime[i] = processes.arrival(i);
+                readyQueue.add(i);
+                scheduleAging(i, time);
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
             }
-            if (allDone) break;
-
-            // Apply aging to waiting processes
-            for (int i = 0; i < processes.size(); i++) {
-                Process p = processes.get(i);
-                if (p.getArrivalTime() <= time && p.getRemainingTime() > 0) {
-                    if (time > lastAgeTime[i] && agingInterval > 0 && (time - lastAgeTime[i]) % agingInterval == 0) {
-                        effectivePriority[i] = Math.max(1, effectivePriority[i] - 1);
-                        lastAgeTime[i] = time;
-                    }
-                }
+            if (SchedulerCounters.ENABLED) {
+                counters.steps++;
+                counters.time(SchedulerCounters.Phase.ADMIT, started);
+                started = System.nanoTime();
             }
 
-            // Find highest priority process (lowest priority number)
-            Process next = null;
-            int nextIndex = -1;
-            for (int i = 0; i < processes.size(); i++) {
-                Process p = processes.get(i);
-                if (p.getRemainingTime() > 0 && p.getArrivalTime() <= time) {
-                    if (next == null ||
-                            effectivePriority[i] < effectivePriority[nextIndex] ||
-                            (effectivePriority[i] == effectivePriority[nextIndex] && p.getArrivalTime() < next.getArrivalTime()) ||
-                            (effectivePriority[i] == effectivePriority[nextIndex] && p.getArrivalTime() == next.getArrivalTime() && i < nextIndex)) {
-                        next = p;
-                        nextIndex = i;
-                    }
-                }
+            // Apply aging to waiting processes whose boundary is now
+            while (!agingQueue.isEmpty() && nextAgeTime[agingQueue.peek()] == time) {
+                int i = agingQueue.poll();
+                effectivePriority[i] = Math.max(1, effectivePriority[i] - 1);
+                lastAgeTime[i] = time;
+                readyQueue.update(i);
+                scheduleAging(i, time);
+                if (SchedulerCounters.ENABLED) counters.agingUpdates++;
+            }
+            if (SchedulerCounters.ENABLED) {
+                counters.time(SchedulerCounters.Phase.AGING, started);
+                started = System.nanoTime();
             }
 
-            // No process ready, advance time
-            if (next == null) {
-                time++;
-                continue;
+            // Find highest priority process (lowest priority number)
+            int next = readyQueue.peek();
+
+            // No process ready, jump to the next arrival
+            if (next == -1) {
+                if (!arrivals.hasNext()) return false;
+                if (SchedulerCounters.ENABLED) {
+                    counters.idleJumps++;
+                    counters.idleTicks += arrivals.peekTime() - time;
+                }
+                time = arrivals.peekTime();
+                return true;
             }
 
             // Context switch if process changed
-            if (current != next) {
-                if (current != null) {
+            if (next != current) {
+                if (current != -1) {
+                    // The switched-out process starts waiting (and aging) again
+                    if (processes.remaining(current) > 0) {
+                        scheduleAging(current, time);
+                        events.accept(SchedulerEvent.Type.PREEMPT, current, time, 0);
+                        if (SchedulerCounters.ENABLED) counters.preempted(SchedulerCounters.Cause.HIGHER_PRIORITY);
+                    }
                     time += contextSwitchTime;
+                    if (SchedulerCounters.ENABLED) counters.contextSwitches++;
+                    // Aging boundaries that fall inside the switch are never observed
+                    while (!agingQueue.isEmpty() && nextAgeTime[agingQueue.peek()] < time) {
+                        scheduleAging(agingQueue.peek(), time);
+                    }
                 }
                 current = next;
+                events.accept(SchedulerEvent.Type.DISPATCH, current, time, 0);
+                if (SchedulerCounters.ENABLED) counters.dispatches++;
                 // Add to execution order if different from last recorded
-                if (!current.getName().equals(lastRecorded)) {
-                    executionOrder.add(current.getName());
-                    lastRecorded = current.getName();
+                if (processes.nameId(current) != lastRecorded) {
+                    timeline.append(current, time, time);
+                    lastRecorded = processes.nameId(current);
                 }
-                continue;
+                return true;
             }
 
-            // Execute one unit of time
-            current.setRemainingTime(current.getRemainingTime() - 1);
-            time++;
-            lastAgeTime[nextIndex] = time;
+            // Execute until completion or the next event that can change the choice:
+            // an arrival or a waiting process reaching an aging boundary
+            agingQueue.remove(current);
+            long runTime = processes.remaining(current);
+            if (!arrivals.hasNext() && !arrivals.settled(time + runTime)) return false;
+            if (arrivals.hasNext()) {
+                runTime = Math.min(runTime, arrivals.peekTime() - time);
+            }
+            if (!agingQueue.isEmpty()) {
+                runTime = Math.min(runTime, nextAgeTime[agingQueue.peek()] - time);
+            }
+            processes.dispatch(current, time);
+            processes.setRemaining(current, processes.remaining(current) - (int) runTime);
+            executed += runTime;
+            timeline.appendMerged(current, time, time + runTime);
+            time += runTime;
+            lastAgeTime[current] = time;
 
             // If process completed
-            if (current.getRemainingTime() == 0) {
-                current.setCompletionTime(time);
-                current.setTurnaroundTime(time - current.getArrivalTime());
-                current.setWaitingTime(current.getTurnaroundTime() - current.getBurstTime());
+            if (processes.remaining(current) == 0) {
+                readyQueue.remove(current);
+                completed++;
+                processes.complete(current, time);
+                events.accept(SchedulerEvent.Type.COMPLETE, current, time, 0);
+                metrics.completed(processes, current);
+                if (SchedulerCounters.ENABLED) {
+                    counters.completions++;
+                    counters.readyQueueRemoves++;
+                }
             }
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.RUN, started);
+            return true;
         }
 
-        if (!is_unit_tes) {
-            printResults(processes, effectivePriority);
+        @Override
+        public boolean finished() {
+            return arrivals.exhausted() && completed + stolen == arrivals.size();
         }
-    }
 
-    // Overload for backward compatibility (without agingInterval parameter)
-    public void schedule(List<Process> processes, int contextSwitchTime) {
-        schedule(processes, contextSwitchTime, 5); // Default aging interval
-    }
+        @Override
+        public long time() {
+            return time;
+        }
 
-    private void printResults(List<Process> processes, int[] effectivePriority) {
-        System.out.println("\n========== Priority Scheduling (Preemptive + Aging) ==========");
-        System.out.println("Execution Order: " + executionOrder);
+        @Override
+        public long executedWork() {
+            return executed;
+        }
 
-        System.out.println("\nPriority Changes");
-        System.out.printf("%-10s %-18s %-18s%n", "Process", "Original Priority", "Final Priority");
-        System.out.println("---------------------------------------------------------------");
+        @Override
+        public boolean idle() {
+            return !arrivals.hasNext() && completed + stolen == arrivals.size();
+        }
 
-        for (int i = 0; i < processes.size(); i++) {
-            Process p = processes.get(i);
-            System.out.printf("%-10s %-18d %-18d%n",
-                    p.getName(), p.getPriority(), effectivePriority[i]);
+        @Override
+        public int steal() {
+            // Leaves of the heap hold the lower priorities
+            for (int slot = readyQueue.size() - 1; slot >= Math.max(0, readyQueue.size() - 2); slot--) {
+                int row = readyQueue.at(slot);
+                if (row != current) {
+                    readyQueue.remove(row);
+                    agingQueue.remove(row);
+                    stolen++;
+                    return row;
+                }
+            }
+            return -1;
         }
 
-        System.out.println("\nProcess Execution Results");
-        System.out.println("---------------------------------------------------------------");
-        System.out.printf("%-10s %-15s %-15s%n", "Process", "Waiting Time", "Turnaround Time");
-        System.out.println("---------------------------------------------------------------");
+        @Override
+        public Timeline timeline() {
+            return timeline;
+        }
+
+        @Override
+        public ScheduleMetrics metrics() {
+            return metrics;
+        }
 
-        double totalWait = 0;
-        double totalTurnaround = 0;
+        @Override
+        public SchedulerCounters counters() {
+            return counters;
+        }
+
+        // Queue the first aging boundary (lastAgeTime + k * agingInterval) that is not before 'from'
+        private void scheduleAging(int i, long from) {
+            agingQueue.remove(i);
+            if (agingInterval <= 0 || effectivePriority[i] == 1) return;
+            long next = lastAgeTime[i] + agingInterval;
+            if (next < from) {
+                long intervals = (from - lastAgeTime[i] + agingInterval - 1) / agingInterval;
+                next = lastAgeTime[i] + intervals * agingInterval;
+            }
+            nextAgeTime[i] = next;
+            agingQueue.add(i);
+        }
 
-        for (Process p : processes) {
-            System.out.printf("%-10s %-15d %-15d%n",
-                    p.getName(), p.getWaitingTime(), p.getTurnaroundTime());
-            totalWait += p.getWaitingTime();
-            totalTurnaround += p.getTurnaroundTime();
+        private void grow(int row) {
+            int capacity = Math.max(row + 1, effectivePriority.length * 2);
+            lastAgeTime = Arrays.copyOf(lastAgeTime, capacity);
+            effectivePriority = Arrays.copyOf(effectivePriority, capacity);
+            nextAgeTime = Arrays.copyOf(nextAgeTime, capacity);
         }
+    }
 
-        System.out.println("---------------------------------------------------------------");
-        System.out.printf("Average Waiting Time: %.2f%n", totalWait / processes.size());
-        System.out.printf("Average Turnaround Time: %.2f%n", totalTurnaround / processes.size());
+    // Overload for backward compatibility (without agingInterval parameter)
+    public void schedule(List<Process> processes, int contextSwitchTime) {
+        schedule(processes, contextSwitchTime, 5); // Default aging interval
+    }
+
+    private void printResults(ProcessTable processes, int[] effectivePriority) {
+        try (ReportWriter report = ReportWriter.stdout(ReportWriter.Format.TEXT)) {
+            report.column("Original Priority", "originalPriority", processes::priority)
+                    .column("Final Priority", "finalPriority", row -> effectivePriority[row])
+                    .write("Priority Scheduling (Preemptive + Aging)", processes, timeline, metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
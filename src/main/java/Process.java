@@ -1,85 +1,102 @@
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
+// View over one row of a ProcessTable. A Process created on its own gets a
+// private one-row table, so existing callers keep working unchanged; that costs
+// a table per process and is meant for one-off processes such as in tests.
+// Lists of processes come from ProcessTable.views(), which the schedulers'
+// List overloads then run in place (ProcessTable.backing). As before,
+// waiting and turnaround time can each be set on their own; until set they follow
+// the completion time. getQuantumHistory() is now a read-only live view: the
+// history grows through setQuantum, not through the list.
 public class Process {
-    private String name;
-    private int arrivalTime;
-    private int burstTime;
-    private int priority;
-
-    // Execution state
-    private int remainingTime;
-    private int quantum;
-    private int waitingTime;
-    private int turnaroundTime;
-    private int completionTime;
-
-    // History for AG/Analysis
-    private List<Integer> quantumHistory;
-    private List<String> quantumTimeline;
+    private final ProcessTable table;
+    private final int row;
 
     public Process(int arrivalTime, int burstTime, String name, int priority, int quantum) {
-        this.arrivalTime = arrivalTime;
-        this.burstTime = burstTime;
-        this.name = name;
-        this.priority = priority;
-        this.quantum = quantum;
-        this.waitingTime = 0;
-        this.quantumHistory = new ArrayList<>();
-        this.quantumTimeline = new ArrayList<>();
-        this.remainingTime = burstTime;
+        this.table = new ProcessTable(1);
+        this.row = table.add(name, arrivalTime, burstTime, priority, quantum);
+    }
+
+    public Process(int arrivalTime, int burstTime, String name, int priority, int quantum, int deadline) {
+        this.table = new ProcessTable(1);
+        this.row = table.add(name, arrivalTime, burstTime, priority, quantum, deadline);
+    }
+
+    Process(ProcessTable table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     public void reset() {
-        this.remainingTime = this.burstTime;
-        this.waitingTime = 0;
-        this.turnaroundTime = 0;
-        this.completionTime = 0;
-        this.quantumHistory = new ArrayList<>();
-        this.quantumTimeline = new ArrayList<>();
+        table.reset(row);
     }
 
     // --- Logic Methods ---
 
     public void setQuantum(int quantum) {
-        this.quantum = quantum;
-        this.quantumHistory.add(quantum);
+        table.setQuantum(row, quantum);
     }
 
+    // History for AG/Analysis: (time, quantum) pairs kept in the table, so every
+    // view of the row sees them; only formatted as "t=<time>:q=<quantum>" when read
     public void recordQuantum(int quantum, int time) {
-        if (this.quantumTimeline == null) this.quantumTimeline = new ArrayList<>();
-        this.quantumTimeline.add("t=" + time + ":q=" + quantum);
+        table.recordQuantumTimeline(row, time, quantum);
     }
 
     public int getCeil25() {
-        return (int) Math.ceil(0.25 * quantum);
+        return (int) Math.ceil(0.25 * getQuantum());
     }
 
     public int getCeil50() {
-        return (int) Math.ceil(0.50 * quantum);
+        return (int) Math.ceil(0.50 * getQuantum());
     }
 
     // --- Getters and Setters ---
-    public String getName() { return name; }
-    public int getArrivalTime() { return arrivalTime; }
-    public int getBurstTime() { return burstTime; }
-    public int getPriority() { return priority; }
-    public void setPriority(int priority) { this.priority = priority; }
-
-    public int getRemainingTime() { return remainingTime; }
-    public void setRemainingTime(int remainingTime) { this.remainingTime = remainingTime; }
-
-    public int getQuantum() { return quantum; }
-
-    public int getWaitingTime() { return waitingTime; }
-    public void setWaitingTime(int waitingTime) { this.waitingTime = waitingTime; }
-
-    public int getTurnaroundTime() { return turnaroundTime; }
-    public void setTurnaroundTime(int turnaroundTime) { this.turnaroundTime = turnaroundTime; }
-
-    public int getCompletionTime() { return completionTime; }
-    public void setCompletionTime(int completionTime) { this.completionTime = completionTime; }
+    public String getName() { return table.name(row); }
+    public int getArrivalTime() { return table.arrival(row); }
+    public int getBurstTime() { return table.burst(row); }
+    public int getPriority() { return table.priority(row); }
+    public void setPriority(int priority) { table.setPriority(row, priority); }
+    public int getDeadline() { return table.deadline(row); }
+
+    public int getRemainingTime() { return table.remaining(row); }
+    public void setRemainingTime(int remainingTime) { table.setRemaining(row, remainingTime); }
+
+    public int getQuantum() { return table.quantum(row); }
+
+    public int getWaitingTime() { return Math.toIntExact(table.waiting(row)); }
+    public void setWaitingTime(int waitingTime) { table.setWaiting(row, waitingTime); }
+
+    public int getTurnaroundTime() { return Math.toIntExact(table.turnaround(row)); }
+    public void setTurnaroundTime(int turnaroundTime) { table.setTurnaround(row, turnaroundTime); }
+
+    public int getResponseTime() { return Math.toIntExact(table.response(row)); }
+
+    public int getCompletionTime() { return Math.toIntExact(table.completion(row)); }
+    public void setCompletionTime(int completionTime) { table.setCompletion(row, completionTime); }
+
+    // Read-only; changing the list throws UnsupportedOperationException
+    public List<Integer> getQuantumHistory() { return table.quantumHistory(row); }
+    public int getQuantumTimelineSize() { return table.quantumTimelineLength(row); }
+    public int getQuantumTimelineTime(int index) { return table.quantumTimelineTime(row, index); }
+    public int getQuantumTimelineQuantum(int index) { return table.quantumTimelineQuantum(row, index); }
+
+    public List<String> getQuantumTimeline() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                if (index >= size()) throw new IndexOutOfBoundsException(index);
+                return "t=" + getQuantumTimelineTime(index) + ":q=" + getQuantumTimelineQuantum(index);
+            }
+
+            @Override
+            public int size() {
+                return getQuantumTimelineSize();
+            }
+        };
+    }
 
-    public List<Integer> getQuantumHistory() { return quantumHistory; }
-    public List<String> getQuantumTimeline() { return quantumTimeline; }
-}
\ No newline at end of file
+    ProcessTable table() { return table; }
+    int row() { return row; }
+}
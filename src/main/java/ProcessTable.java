@@ -0,0 +1,453 @@
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Struct-of-arrays storage for a workload: one row per process, one primitive
+// array per field. Names are interned to integer ids. Completion time is kept
+// as a long so very long traces do not overflow; turnaround and waiting time
+// are derived from it instead of being stored. Process is a view over one row.
+// Input columns are IntBuffers so a table can also sit directly on a memory
+// mapped BinaryWorkload file; such a table is read-only and only allocates its
+// execution state on first reset.
+public class ProcessTable {
+    // deadline() of a process that has none
+    public static final int NO_DEADLINE = Integer.MAX_VALUE;
+
+    private int size;
+
+    // Input
+    private IntBuffer arrival;
+    private IntBuffer burst;
+    private IntBuffer priority;
+    private IntBuffer quantum;
+    private IntBuffer nameId;
+    // Absolute deadlines, null while no row has one
+    private IntBuffer deadline;
+    private final List<String> names;
+    private final Map<String, Integer> nameIds;
+
+    // Execution state
+    private int[] remaining;
+    private int[] currentQuantum;
+    private long[] completion;
+    private long[] firstDispatch;
+    // Waiting and turnaround times set explicitly, allocated on first use; NOT_SET
+    // where the value still follows completion
+    private long[] waitingOverride;
+    private long[] turnaroundOverride;
+    private static final long NOT_SET = Long.MIN_VALUE;
+    // When each row's deadline miss was reported, allocated on the first miss; -1 where none
+    private long[] deadlineMiss;
+
+    // Set on the read-only copy a Workload holds, which has no execution state
+    private boolean frozen;
+
+    // Rows sorted by arrival, computed once and shared with forks
+    private volatile int[] arrivalOrder;
+
+    // AG quantum history, allocated on first use
+    private int[][] quantumHistory;
+    private int[] quantumHistoryLength;
+    // (time, quantum) pairs recorded through Process.recordQuantum, interleaved,
+    // allocated on first use; rows keep their arrays across reset
+    private int[][] quantumTimeline;
+    private int[] quantumTimelineLength;
+
+    public ProcessTable() {
+        this(16);
+    }
+
+    public ProcessTable(int capacity) {
+        capacity = Math.max(1, capacity);
+        arrival = IntBuffer.allocate(capacity);
+        burst = IntBuffer.allocate(capacity);
+        priority = IntBuffer.allocate(capacity);
+        quantum = IntBuffer.allocate(capacity);
+        nameId = IntBuffer.allocate(capacity);
+        names = new ArrayList<>();
+        nameIds = new HashMap<>();
+        allocateState(capacity);
+    }
+
+    // Read-only table over existing columns, e.g. slices of a mapped file
+    ProcessTable(int size, IntBuffer arrival, IntBuffer burst, IntBuffer priority, IntBuffer quantum,
+                 IntBuffer nameId, IntBuffer deadline, List<String> names) {
+        this.size = size;
+        this.arrival = arrival;
+        this.burst = burst;
+        this.priority = priority;
+        this.quantum = quantum;
+        this.nameId = nameId;
+        this.deadline = deadline;
+        this.names = names;
+        this.nameIds = null;
+    }
+
+    // Copies the processes into a new table, row i holding processes.get(i)
+    public static ProcessTable of(List<Process> processes) {
+        ProcessTable table = new ProcessTable(processes.size());
+        for (Process p : processes) {
+            table.add(p.getName(), p.getArrivalTime(), p.getBurstTime(), p.getPriority(), p.getQuantum(),
+                    p.getDeadline());
+        }
+        return table;
+    }
+
+    // The table the processes view when they are exactly its rows in order, e.g.
+    // views(), so the List overloads schedule it in place; otherwise a copy as of()
+    public static ProcessTable backing(List<Process> processes) {
+        if (!processes.isEmpty()) {
+            ProcessTable table = processes.get(0).table();
+            boolean whole = table.size == processes.size() && !table.frozen;
+            for (int i = 0; whole && i < processes.size(); i++) {
+                whole = processes.get(i).table() == table && processes.get(i).row() == i;
+            }
+            if (whole) return table;
+        }
+        return of(processes);
+    }
+
+    // A read-only table sharing this table's input columns, with its own execution
+    // state, so several schedulers can run on the same workload concurrently.
+    // This table must not be added to while forks are in use.
+    public ProcessTable fork() {
+        ProcessTable fork = new ProcessTable(size, arrival, burst, priority, quantum, nameId, deadline, names);
+        fork.arrivalOrder = sortedByArrival();
+        return fork;
+    }
+
+    // A copy sharing this table's input columns that can only be read and forked:
+    // add, setPriority and reset throw. This table must not be added to afterwards.
+    public ProcessTable readOnly() {
+        ProcessTable copy = new ProcessTable(size, arrival, burst, priority, quantum, nameId, deadline, names);
+        copy.arrivalOrder = arrivalOrder;
+        copy.frozen = true;
+        return copy;
+    }
+
+    public int add(String name, int arrivalTime, int burstTime, int priority, int quantum) {
+        return add(name, arrivalTime, burstTime, priority, quantum, NO_DEADLINE);
+    }
+
+    public int add(String name, int arrivalTime, int burstTime, int priority, int quantum, int deadline) {
+        if (nameIds == null) throw new UnsupportedOperationException("Table is read-only");
+        if (size == arrival.capacity()) grow();
+        int row = size++;
+        arrivalOrder = null;
+        this.arrival.put(row, arrivalTime);
+        this.burst.put(row, burstTime);
+        this.priority.put(row, priority);
+        this.quantum.put(row, quantum);
+        this.nameId.put(row, intern(name));
+        if (deadline != NO_DEADLINE && this.deadline == null) {
+            int[] column = new int[arrival.capacity()];
+            Arrays.fill(column, NO_DEADLINE);
+            this.deadline = IntBuffer.wrap(column);
+        }
+        if (this.deadline != null) this.deadline.put(row, deadline);
+        reset(row);
+        return row;
+    }
+
+    public int size() { return size; }
+
+    public void reset() {
+        if (frozen) throw new UnsupportedOperationException("Table is read-only; fork() it to run");
+        if (remaining == null) allocateState(size);
+        for (int row = 0; row < size; row++) reset(row);
+    }
+
+    public void reset(int row) {
+        remaining[row] = burst.get(row);
+        currentQuantum[row] = quantum.get(row);
+        completion[row] = 0;
+        firstDispatch[row] = -1;
+        if (waitingOverride != null) {
+            waitingOverride[row] = NOT_SET;
+            turnaroundOverride[row] = NOT_SET;
+        }
+        if (deadlineMiss != null) deadlineMiss[row] = -1;
+        if (quantumHistoryLength != null) quantumHistoryLength[row] = 0;
+        if (quantumTimelineLength != null) quantumTimelineLength[row] = 0;
+    }
+
+    // --- Logic Methods ---
+
+    public void complete(int row, long time) {
+        completion[row] = time;
+    }
+
+    // Notes when the row first gets the CPU, for its response time
+    public void dispatch(int row, long time) {
+        if (firstDispatch[row] < 0) firstDispatch[row] = time;
+    }
+
+    // Notes when the row's deadline was reported missed; a row misses at most once
+    public void missDeadline(int row, long time) {
+        if (deadlineMiss == null) {
+            deadlineMiss = new long[remaining.length];
+            Arrays.fill(deadlineMiss, -1);
+        }
+        deadlineMiss[row] = time;
+    }
+
+    // Like Process.setQuantum, every update is appended to the quantum history
+    public void setQuantum(int row, int quantum) {
+        currentQuantum[row] = quantum;
+        recordQuantum(row, quantum);
+    }
+
+    public void recordQuantum(int row, int quantum) {
+        if (quantumHistory == null) {
+            quantumHistory = new int[remaining.length][];
+            quantumHistoryLength = new int[remaining.length];
+        }
+        int[] history = quantumHistory[row];
+        int length = quantumHistoryLength[row];
+        if (history == null) {
+            history = quantumHistory[row] = new int[4];
+        } else if (length == history.length) {
+            history = quantumHistory[row] = Arrays.copyOf(history, length * 2);
+        }
+        history[length] = quantum;
+        quantumHistoryLength[row] = length + 1;
+    }
+
+    public void recordQuantumTimeline(int row, int time, int quantum) {
+        if (quantumTimeline == null) {
+            quantumTimeline = new int[remaining.length][];
+            quantumTimelineLength = new int[remaining.length];
+        }
+        int[] pairs = quantumTimeline[row];
+        int length = quantumTimelineLength[row];
+        if (pairs == null) {
+            pairs = quantumTimeline[row] = new int[8];
+        } else if (2 * length == pairs.length) {
+            pairs = quantumTimeline[row] = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[2 * length] = time;
+        pairs[2 * length + 1] = quantum;
+        quantumTimelineLength[row] = length + 1;
+    }
+
+    public int quantumTimelineLength(int row) {
+        return quantumTimelineLength == null ? 0 : quantumTimelineLength[row];
+    }
+
+    public int quantumTimelineTime(int row, int index) {
+        return quantumTimeline[row][2 * index];
+    }
+
+    public int quantumTimelineQuantum(int row, int index) {
+        return quantumTimeline[row][2 * index + 1];
+    }
+
+    public int quantumHistoryLength(int row) {
+        return quantumHistoryLength == null ? 0 : quantumHistoryLength[row];
+    }
+
+    public int quantumHistory(int row, int index) {
+        return quantumHistory[row][index];
+    }
+
+    // Read-only live view of the row's history, values boxed as they are read;
+    // entries are added through setQuantum or recordQuantum
+    public List<Integer> quantumHistory(int row) {
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                if (index >= size()) throw new IndexOutOfBoundsException(index);
+                return quantumHistory[row][index];
+            }
+
+            @Override
+            public int size() {
+                return quantumHistoryLength(row);
+            }
+        };
+    }
+
+    // Rows sorted by arrival time, ties keep row order
+    public int[] arrivalOrder() {
+        return sortedByArrival().clone();
+    }
+
+    // Shared, cached copy of arrivalOrder(); callers must not modify it
+    int[] sortedByArrival() {
+        int[] order = arrivalOrder;
+        if (order == null) arrivalOrder = order = sortArrivals();
+        return order;
+    }
+
+    private int[] sortArrivals() {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) arrival.get(i) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    // Writes the execution state of every row back into processes.get(row)
+    public void copyResultsTo(List<Process> processes) {
+        for (int row = 0; row < size; row++) {
+            Process p = processes.get(row);
+            ProcessTable target = p.table();
+            int targetRow = p.row();
+            if (target == this && targetRow == row) continue;
+            target.remaining[targetRow] = remaining[row];
+            target.currentQuantum[targetRow] = currentQuantum[row];
+            target.completion[targetRow] = completion[row];
+            target.firstDispatch[targetRow] = firstDispatch[row];
+            if (target.waitingOverride != null) {
+                target.waitingOverride[targetRow] = NOT_SET;
+                target.turnaroundOverride[targetRow] = NOT_SET;
+            }
+            if (deadlineMiss(row) >= 0) {
+                target.missDeadline(targetRow, deadlineMiss(row));
+            } else if (target.deadlineMiss != null) {
+                target.deadlineMiss[targetRow] = -1;
+            }
+            if (target.quantumHistoryLength != null) target.quantumHistoryLength[targetRow] = 0;
+            for (int i = 0; i < quantumHistoryLength(row); i++) {
+                target.recordQuantum(targetRow, quantumHistory[row][i]);
+            }
+            if (target.quantumTimelineLength != null) target.quantumTimelineLength[targetRow] = 0;
+            for (int i = 0; i < quantumTimelineLength(row); i++) {
+                target.recordQuantumTimeline(targetRow, quantumTimelineTime(row, i), quantumTimelineQuantum(row, i));
+            }
+        }
+    }
+
+    // --- Getters and Setters ---
+    public String name(int row) { return names.get(nameId.get(row)); }
+    public int nameId(int row) { return nameId.get(row); }
+    public int nameCount() { return names.size(); }
+    public String nameForId(int id) { return names.get(id); }
+    public int arrival(int row) { return arrival.get(row); }
+    public int burst(int row) { return burst.get(row); }
+    public int priority(int row) { return priority.get(row); }
+    public void setPriority(int row, int priority) {
+        if (nameIds == null) throw new UnsupportedOperationException("Table is read-only");
+        this.priority.put(row, priority);
+    }
+    // The initial quantum, as given in the input
+    public int initialQuantum(int row) { return quantum.get(row); }
+    // Absolute time the row should complete by, or NO_DEADLINE
+    public int deadline(int row) { return deadline == null ? NO_DEADLINE : deadline.get(row); }
+    public boolean hasDeadlines() { return deadline != null; }
+
+    public int remaining(int row) { return remaining[row]; }
+    public void setRemaining(int row, int remaining) { this.remaining[row] = remaining; }
+
+    public int quantum(int row) { return currentQuantum[row]; }
+
+    public long completion(int row) { return completion[row]; }
+    public void setCompletion(int row, long completion) { this.completion[row] = completion; }
+
+    // Derived from completion, zero until the row has completed like the fields of a
+    // freshly reset Process. A value set explicitly is kept as it is until the next
+    // reset, independent of completion and of the other time.
+    public long turnaround(int row) {
+        if (turnaroundOverride != null && turnaroundOverride[row] != NOT_SET) return turnaroundOverride[row];
+        return completion[row] == 0 ? 0 : completion[row] - arrival(row);
+    }
+
+    public void setTurnaround(int row, long turnaround) {
+        allocateOverrides();
+        turnaroundOverride[row] = turnaround;
+    }
+
+    public long waiting(int row) {
+        if (waitingOverride != null && waitingOverride[row] != NOT_SET) return waitingOverride[row];
+        return completion[row] == 0 ? 0 : completion[row] - arrival(row) - burst(row);
+    }
+
+    public void setWaiting(int row, long waiting) {
+        allocateOverrides();
+        waitingOverride[row] = waiting;
+    }
+
+    // Zero until the row has been dispatched
+    public long response(int row) { return firstDispatch[row] < 0 ? 0 : firstDispatch[row] - arrival(row); }
+    // -1 until the row has been dispatched
+    long firstDispatch(int row) { return firstDispatch[row]; }
+    // -1 unless the row missed its deadline
+    public long deadlineMiss(int row) { return deadlineMiss == null ? -1 : deadlineMiss[row]; }
+
+    // A Process view over the given row
+    public Process view(int row) {
+        if (remaining == null) reset();
+        return new Process(this, row);
+    }
+
+    public List<Process> views() {
+        List<Process> views = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) views.add(view(row));
+        return views;
+    }
+
+    private int intern(String name) {
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    private void allocateState(int capacity) {
+        remaining = new int[capacity];
+        currentQuantum = new int[capacity];
+        completion = new long[capacity];
+        firstDispatch = new long[capacity];
+    }
+
+    private void allocateOverrides() {
+        if (waitingOverride != null) return;
+        waitingOverride = new long[remaining.length];
+        turnaroundOverride = new long[remaining.length];
+        Arrays.fill(waitingOverride, NOT_SET);
+        Arrays.fill(turnaroundOverride, NOT_SET);
+    }
+
+    private static IntBuffer grow(IntBuffer column, int capacity) {
+        return IntBuffer.wrap(Arrays.copyOf(column.array(), capacity));
+    }
+
+    private void grow() {
+        int capacity = arrival.capacity() * 2;
+        arrival = grow(arrival, capacity);
+        burst = grow(burst, capacity);
+        priority = grow(priority, capacity);
+        quantum = grow(quantum, capacity);
+        nameId = grow(nameId, capacity);
+        if (deadline != null) deadline = grow(deadline, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        currentQuantum = Arrays.copyOf(currentQuantum, capacity);
+        completion = Arrays.copyOf(completion, capacity);
+        firstDispatch = Arrays.copyOf(firstDispatch, capacity);
+        if (waitingOverride != null) {
+            waitingOverride = Arrays.copyOf(waitingOverride, capacity);
+            turnaroundOverride = Arrays.copyOf(turnaroundOverride, capacity);
+        }
+        if (deadlineMiss != null) deadlineMiss = Arrays.copyOf(deadlineMiss, capacity);
+        if (quantumHistory != null) {
+            quantumHistory = Arrays.copyOf(quantumHistory, capacity);
+            quantumHistoryLength = Arrays.copyOf(quantumHistoryLength, capacity);
+        }
+        if (quantumTimeline != null) {
+            quantumTimeline = Arrays.copyOf(quantumTimeline, capacity);
+            quantumTimelineLength = Arrays.copyOf(quantumTimelineLength, capacity);
+        }
+    }
+}
@@ -1,89 +1,231 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 
-class RRScheduler {
-    List<String> executionOrder = new ArrayList<>();
+class RRScheduler implements Scheduler {
+    Timeline timeline;
+    ScheduleMetrics metrics;
     boolean is_unit_test;
     RRScheduler(boolean is_unit_test){
         this.is_unit_test = is_unit_test;
     }
+
+    @Override
+    public String name() {
+        return "RR";
+    }
+
+    @Override
+    public ScheduleResult schedule(Workload workload, ScheduleParams params) {
+        ProcessTable processes = workload.processes.fork();
+        processes.reset();
+        Run run = start(processes, Arrivals.of(processes), params, SchedulerEvent.Sink.NONE);
+        run.drain();
+        return new ScheduleResult(name(), params, processes, run);
+    }
+
     public void schedule(List<Process> processes, int quantum, int contextSwitching) {
-        for (Process p : processes) {
-            p.reset();
+        ProcessTable table = ProcessTable.backing(processes);
+        schedule(table, quantum, contextSwitching);
+        table.copyResultsTo(processes);
+    }
+
+    public void schedule(ProcessTable processes, int quantum, int contextSwitching) {
+        processes.reset();
+        Run run = start(processes, Arrivals.of(processes), new ScheduleParams(contextSwitching, quantum, 0),
+                SchedulerEvent.Sink.NONE);
+        run.drain();
+        timeline = run.timeline;
+        metrics = run.metrics;
+
+        if (!is_unit_test) {
+            printResults(processes);
         }
+    }
 
-        Queue<Process> readyQueue = new LinkedList<>();
-        int completedProcesses = 0, n = processes.size();
-        int ptr = 0, currentTime = 0;
-        Process lstProcess = null;
+    Run start(ProcessTable processes, Arrivals arrivals, ScheduleParams params, SchedulerEvent.Sink events) {
+        if (params.rrQuantum < 1) throw new IllegalArgumentException("RR needs rrQuantum >= 1, got " + params.rrQuantum);
+        return new Run(processes, arrivals, params.rrQuantum, params.contextSwitch, events);
+    }
 
-        processes.sort(Comparator.comparingInt(Process::getArrivalTime));
+    static class Run implements SchedulerRun {
+        private final ProcessTable processes;
+        private final Arrivals arrivals;
+        private final int quantum;
+        private final int contextSwitching;
+        private final SchedulerEvent.Sink events;
+        private final Timeline timeline;
+        private final ScheduleMetrics metrics = new ScheduleMetrics();
+        private final SchedulerCounters counters = SchedulerCounters.ENABLED ? new SchedulerCounters("RR") : null;
+        private final IntRingBuffer readyQueue;
+        private long currentTime;
+        private int lstProcess = -1;
+        private int completedProcesses;
+        private int stolen;
+        private long executed;
+
+        Run(ProcessTable processes, Arrivals arrivals, int quantum, int contextSwitching, SchedulerEvent.Sink events) {
+            this.processes = processes;
+            this.arrivals = arrivals;
+            this.quantum = quantum;
+            this.contextSwitching = contextSwitching;
+            this.events = events;
+            this.timeline = new Timeline(processes);
+            this.readyQueue = new IntRingBuffer(processes.size());
+        }
 
-        while (completedProcesses < n) {
-            while (ptr < n && processes.get(ptr).getArrivalTime() <= currentTime) {
-                readyQueue.add(processes.get(ptr++));
-            }
+        @Override
+        public boolean step() {
+            if (!arrivals.settled(currentTime)) return false;
+            admit();
+            if (SchedulerCounters.ENABLED) counters.steps++;
             if (readyQueue.isEmpty()) {
-                ++currentTime;
-                continue;
+                // Idle: jump straight to the next arrival
+                if (!arrivals.hasNext()) return false;
+                if (SchedulerCounters.ENABLED) {
+                    counters.idleJumps++;
+                    counters.idleTicks += arrivals.peekTime() - currentTime;
+                }
+                currentTime = arrivals.peekTime();
+                return true;
             }
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
 
-            Process currentProcess = readyQueue.poll();
-            if (lstProcess != null && lstProcess != currentProcess) {
-                currentTime += contextSwitching;
+            int current = readyQueue.peek();
+            long start = currentTime;
+            if (lstProcess != -1 && lstProcess != current) {
+                start += contextSwitching;
             }
 
-            int requiredTime = Math.min(quantum, currentProcess.getRemainingTime());
-            currentTime += requiredTime;
-            currentProcess.setRemainingTime(currentProcess.getRemainingTime() - requiredTime);
-            executionOrder.add(currentProcess.getName());
+            // Alone in the queue, the process keeps getting the CPU back until it
+            // finishes or a quantum ends at/after the next arrival: run those quanta in one step
+            int quanta = 1;
+            if (readyQueue.size() == 1) {
+                long remainingQuanta = (processes.remaining(current) + (long) quantum - 1) / quantum;
+                long quantaBeforeArrival = Long.MAX_VALUE;
+                if (arrivals.hasNext()) {
+                    long untilArrival = arrivals.peekTime() - start;
+                    quantaBeforeArrival = Math.max(1, (untilArrival + quantum - 1) / quantum);
+                }
+                quanta = (int) Math.min(remainingQuanta, quantaBeforeArrival);
+            }
 
-            while (ptr < n && processes.get(ptr).getArrivalTime() <= currentTime) {
-                readyQueue.add(processes.get(ptr++));
+            int requiredTime = (int) Math.min((long) quanta * quantum, processes.remaining(current));
+            long end = start + requiredTime;
+            // Arrivals up to the end of the slice queue ahead of the current process
+            if (!arrivals.settled(end)) return false;
+
+            readyQueue.poll();
+            if (lstProcess != current) {
+                if (lstProcess != -1 && processes.remaining(lstProcess) > 0) {
+                    events.accept(SchedulerEvent.Type.PREEMPT, lstProcess, currentTime, 0);
+                    if (SchedulerCounters.ENABLED) counters.preempted(SchedulerCounters.Cause.QUANTUM_EXPIRED);
+                }
+                processes.dispatch(current, start);
+                events.accept(SchedulerEvent.Type.DISPATCH, current, start, 0);
+                if (SchedulerCounters.ENABLED) {
+                    counters.dispatches++;
+                    if (lstProcess != -1) counters.contextSwitches++;
+                }
+            }
+            processes.setRemaining(current, processes.remaining(current) - requiredTime);
+            executed += requiredTime;
+            // One segment per quantum, as each counts as a separate dispatch
+            for (int i = 0; i < quanta; i++) {
+                long sliceStart = start + (long) i * quantum;
+                timeline.append(current, sliceStart, Math.min(sliceStart + quantum, end));
             }
+            currentTime = end;
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.RUN, started);
 
-            if (currentProcess.getRemainingTime() == 0) {
+            admit();
+
+            if (processes.remaining(current) == 0) {
                 ++completedProcesses;
-                currentProcess.setCompletionTime(currentTime);
-                currentProcess.setTurnaroundTime(currentProcess.getCompletionTime() - currentProcess.getArrivalTime());
-                currentProcess.setWaitingTime(currentProcess.getTurnaroundTime() - currentProcess.getBurstTime());
+                processes.complete(current, currentTime);
+                events.accept(SchedulerEvent.Type.COMPLETE, current, currentTime, 0);
+                metrics.completed(processes, current);
+                if (SchedulerCounters.ENABLED) counters.completions++;
             } else {
-                readyQueue.add(currentProcess);
+                readyQueue.add(current);
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
             }
-            lstProcess = currentProcess;
+            if (SchedulerCounters.ENABLED) counters.readyQueueRemoves++;
+            lstProcess = current;
+            return true;
         }
 
-        if (!is_unit_test) {
-            printResults(processes, executionOrder);
+        private void admit() {
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+            while (arrivals.hasNext() && arrivals.peekTime() <= currentTime) {
+                readyQueue.add(arrivals.poll());
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
+            }
+            if (SchedulerCounters.ENABLED) counters.time(SchedulerCounters.Phase.ADMIT, started);
+        }
+
+        @Override
+        public boolean finished() {
+            return arrivals.exhausted() && completedProcesses + stolen == arrivals.size();
+        }
+
+        @Override
+        public long time() {
+            return currentTime;
         }
-    }
-    List<String> getExecutionOrder() {
-        return executionOrder;
-    }
 
-    private void printResults(List<Process> processes, List<String> executionOrder) {
-        System.out.println("\n========== Round Robin Scheduler Results ==========");
-        System.out.println("Execution Order: " + executionOrder);
+        @Override
+        public long executedWork() {
+            return executed;
+        }
 
-        System.out.println("---------------------------------------------------------------");
-        System.out.printf("%-10s %-15s %-15s\n", "Process", "Waiting Time", "Turnaround Time");
-        System.out.println("---------------------------------------------------------------");
+        @Override
+        public boolean idle() {
+            return !arrivals.hasNext() && completedProcesses + stolen == arrivals.size();
+        }
 
-        double totalWaiting = 0;
-        double totalTurnaround = 0;
+        @Override
+        public int steal() {
+            // The head of the queue; the last process to run sits at the tail
+            if (readyQueue.isEmpty() || readyQueue.peek() == lstProcess) return -1;
+            stolen++;
+            return readyQueue.poll();
+        }
+
+        @Override
+        public Timeline timeline() {
+            return timeline;
+        }
 
-        processes.sort(Comparator.comparing(Process::getName));
+        @Override
+        public ScheduleMetrics metrics() {
+            return metrics;
+        }
 
-        for (Process p : processes) {
-            System.out.printf("%-10s %-15d %-15d\n",
-                    p.getName(), p.getWaitingTime(), p.getTurnaroundTime());
-            totalWaiting += p.getWaitingTime();
-            totalTurnaround += p.getTurnaroundTime();
+        @Override
+        public SchedulerCounters counters() {
+            return counters;
         }
+    }
+
+    List<String> getExecutionOrder() {
+        return timeline.executionOrder();
+    }
 
-        System.out.println("---------------------------------------------------------------");
-        System.out.printf("Average Waiting Time: %.2f\n", (totalWaiting / processes.size()));
-        System.out.printf("Average Turnaround Time: %.2f\n", (totalTurnaround / processes.size()));
-        System.out.println("===============================================================");
+    Timeline getTimeline() {
+        return timeline;
+    }
+
+    ScheduleMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void printResults(ProcessTable processes) {
+        try (ReportWriter report = ReportWriter.stdout(ReportWriter.Format.TEXT)) {
+            report.write("Round Robin Scheduler", processes, timeline, metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 }
@@ -0,0 +1,462 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Writes a scheduling report record by record through one large buffer instead
+// of a console write per line. A report is a header, then process rows and
+// timeline segments in any order, then a summary:
+//
+//   TEXT   the tables the schedulers print
+//   CSV    one line per record, the first column naming its kind
+//   JSONL  one JSON object per record
+//
+// Rows can be written as processes complete: pass completions(...) as the
+// run's event sink and write the timeline and summary once it has finished.
+// Write failures surface as UncheckedIOException. Not thread-safe.
+public abstract class ReportWriter implements Closeable {
+    public enum Format { TEXT, CSV, JSONL }
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    protected final Writer out;
+    protected String scheduler;
+    // Scheduler specific per-process columns, e.g. AG's quantum history
+    protected final List<String> columnTitles = new ArrayList<>();
+    protected final List<String> columnKeys = new ArrayList<>();
+    protected final List<IntFunction<Object>> columns = new ArrayList<>();
+
+    protected ReportWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: ReportWriter <workload.json|.bin> <SJF|RR|Priority|AG|MLFQ|CFS|EDF> <text|csv|jsonl> [output]");
+            return;
+        }
+        Workload workload = BatchRunner.load(Path.of(args[0]));
+        Format format = Format.valueOf(args[2].toUpperCase());
+        ProcessTable processes = workload.processes.fork();
+        processes.reset();
+        try (ReportWriter report = args.length > 3 ? open(format, Path.of(args[3])) : stdout(format)) {
+            if (args[1].equals("AG")) report.column("Quantum History", "quantumHistory", processes::quantumHistory);
+            if (processes.hasDeadlines()) report.deadlines(processes);
+            report.begin(args[1]);
+            SchedulerRun run = SchedulerRun.start(args[1], processes, Arrivals.of(processes),
+                    ScheduleParams.of(workload), report.completions(processes));
+            run.drain();
+            report.timeline(run.timeline());
+            report.summary(run.metrics());
+        }
+    }
+
+    public static ReportWriter open(Format format, Path path) throws IOException {
+        return create(format, Files.newOutputStream(path));
+    }
+
+    // Standard output, bypassing System.out's per-call locking; closing only flushes
+    public static ReportWriter stdout(Format format) {
+        System.out.flush();
+        return create(format, new FilterOutputStream(new FileOutputStream(FileDescriptor.out)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        });
+    }
+
+    public static ReportWriter create(Format format, OutputStream out) {
+        switch (format) {
+            case TEXT: return new Text(out);
+            case CSV: return new Csv(out);
+            case JSONL: return new JsonLines(out);
+            default: throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
+    // Adds a column to every process row, titled for TEXT and keyed for CSV and JSONL; call before begin
+    public ReportWriter column(String title, String key, IntFunction<Object> value) {
+        columnTitles.add(title);
+        columnKeys.add(key);
+        columns.add(value);
+        return this;
+    }
+
+    // The deadline column, "-" for processes without one
+    public ReportWriter deadlines(ProcessTable processes) {
+        return column("Deadline", "deadline", row -> {
+            int deadline = processes.deadline(row);
+            return deadline == ProcessTable.NO_DEADLINE ? "-" : deadline;
+        });
+    }
+
+    public void begin(String scheduler) {
+        this.scheduler = scheduler;
+        try {
+            header();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void process(ProcessTable processes, int row) {
+        try {
+            row(processes, row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void segment(String name, long start, long end) {
+        try {
+            segmentRecord(name, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void summary(ScheduleMetrics metrics) {
+        try {
+            summaryRecord(metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void timeline(Timeline timeline) {
+        for (int i = 0; i < timeline.size(); i++) segment(timeline.name(i), timeline.start(i), timeline.end(i));
+    }
+
+    // Every process in row order
+    public void processes(ProcessTable processes) {
+        for (int row = 0; row < processes.size(); row++) process(processes, row);
+    }
+
+    // The whole report of a finished run
+    public void write(String scheduler, ProcessTable processes, Timeline timeline, ScheduleMetrics metrics) {
+        begin(scheduler);
+        timeline(timeline);
+        processes(processes);
+        summary(metrics);
+    }
+
+    // Event sink writing each process's row when it completes
+    SchedulerEvent.Sink completions(ProcessTable processes) {
+        return (type, row, time, value) -> {
+            if (type == SchedulerEvent.Type.COMPLETE) process(processes, row);
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    protected abstract void header() throws IOException;
+    protected abstract void row(ProcessTable processes, int row) throws IOException;
+    protected abstract void segmentRecord(String name, long start, long end) throws IOException;
+    protected abstract void summaryRecord(ScheduleMetrics metrics) throws IOException;
+    protected void finish() throws IOException { }
+
+    // The layout the schedulers have always printed: execution order, a row per process, averages
+    static class Text extends ReportWriter {
+        private static final String RULE = "---------------------------------------------------------------\n";
+        private enum Section { NONE, ORDER, PROCESSES }
+
+        private Section section = Section.NONE;
+        // Padding owed by the last cell, written only if another cell follows
+        private int padding;
+
+        Text(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        protected void header() throws IOException {
+            out.write("\n========== " + scheduler + " Results ==========\n");
+        }
+
+        @Override
+        protected void segmentRecord(String name, long start, long end) throws IOException {
+            if (section == Section.ORDER) {
+                out.write(", ");
+            } else {
+                endSection();
+                section = Section.ORDER;
+                out.write("Execution Order: [");
+            }
+            out.write(name);
+        }
+
+        @Override
+        protected void row(ProcessTable processes, int row) throws IOException {
+            if (section != Section.PROCESSES) {
+                endSection();
+                section = Section.PROCESSES;
+                out.write(RULE);
+                pad("Process", 10);
+                pad("Waiting Time", 15);
+                pad("Turnaround Time", 15);
+                pad("Response Time", 15);
+                for (String title : columnTitles) pad(title, 20);
+                newLine();
+                out.write(RULE);
+            }
+            pad(processes.name(row), 10);
+            pad(Long.toString(processes.waiting(row)), 15);
+            pad(Long.toString(processes.turnaround(row)), 15);
+            pad(Long.toString(processes.response(row)), 15);
+            for (IntFunction<Object> column : columns) pad(String.valueOf(column.apply(row)), 20);
+            newLine();
+        }
+
+        @Override
+        protected void summaryRecord(ScheduleMetrics metrics) throws IOException {
+            endSection();
+            out.write(RULE);
+            out.write(String.format("Average Waiting Time: %.2f%n", metrics.waiting.mean()));
+            out.write(String.format("Average Turnaround Time: %.2f%n", metrics.turnaround.mean()));
+            out.write("Waiting:    " + metrics.waiting + "\n");
+            out.write("Turnaround: " + metrics.turnaround + "\n");
+            out.write("Response:   " + metrics.response + "\n");
+            out.write(String.format("Fairness:   %.4f%n", metrics.fairness()));
+            out.write(String.format("Utilization: %.1f%%%n", metrics.utilization() * 100));
+            if (metrics.lateness.count() > 0) {
+                out.write("Misses:     " + metrics.deadlineMisses() + " of " + metrics.lateness.count()
+                        + " deadlines\n");
+                out.write("Lateness:   " + metrics.lateness + "\n");
+            }
+            out.write(RULE.replace('-', '='));
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            endSection();
+        }
+
+        private void endSection() throws IOException {
+            if (section == Section.ORDER) out.write("]\n");
+            section = Section.NONE;
+        }
+
+        // Left aligned in width columns plus a separating space, like "%-<width>s "
+        private void pad(String value, int width) throws IOException {
+            for (; padding > 0; padding--) out.write(' ');
+            out.write(value);
+            padding = Math.max(0, width - value.length()) + 1;
+        }
+
+        private void newLine() throws IOException {
+            padding = 0;
+            out.write('\n');
+        }
+    }
+
+    // record,scheduler,name,start,end,arrival,burst,priority,completion,waiting,turnaround,response[,columns]
+    static class Csv extends ReportWriter {
+        Csv(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        protected void header() throws IOException {
+            out.write("record,scheduler,name,start,end,arrival,burst,priority,completion,waiting,turnaround,response");
+            for (String key : columnKeys) {
+                out.write(',');
+                field(key);
+            }
+            out.write('\n');
+        }
+
+        @Override
+        protected void row(ProcessTable processes, int row) throws IOException {
+            out.write("process,");
+            field(scheduler);
+            out.write(',');
+            field(processes.name(row));
+            out.write(",,,");
+            out.write(Integer.toString(processes.arrival(row)));
+            out.write(',');
+            out.write(Integer.toString(processes.burst(row)));
+            out.write(',');
+            out.write(Integer.toString(processes.priority(row)));
+            out.write(',');
+            out.write(Long.toString(processes.completion(row)));
+            out.write(',');
+            out.write(Long.toString(processes.waiting(row)));
+            out.write(',');
+            out.write(Long.toString(processes.turnaround(row)));
+            out.write(',');
+            out.write(Long.toString(processes.response(row)));
+            for (IntFunction<Object> column : columns) {
+                out.write(',');
+                field(String.valueOf(column.apply(row)));
+            }
+            out.write('\n');
+        }
+
+        @Override
+        protected void segmentRecord(String name, long start, long end) throws IOException {
+            out.write("segment,");
+            field(scheduler);
+            out.write(',');
+            field(name);
+            out.write(',');
+            out.write(Long.toString(start));
+            out.write(',');
+            out.write(Long.toString(end));
+            out.write(",,,,,,,");
+            for (int i = 0; i < columns.size(); i++) out.write(',');
+            out.write('\n');
+        }
+
+        // Means in the waiting and turnaround columns
+        @Override
+        protected void summaryRecord(ScheduleMetrics metrics) throws IOException {
+            out.write("average,");
+            field(scheduler);
+            out.write(",,,,,,,,");
+            out.write(Double.toString(metrics.waiting.mean()));
+            out.write(',');
+            out.write(Double.toString(metrics.turnaround.mean()));
+            out.write(',');
+            out.write(Double.toString(metrics.response.mean()));
+            for (int i = 0; i < columns.size(); i++) out.write(',');
+            out.write('\n');
+        }
+
+        // Quoted only when it has to be
+        private void field(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    // {"type":"process"|"segment"|"summary","scheduler":...,...} per line
+    static class JsonLines extends ReportWriter {
+        private final JsonGenerator json;
+
+        JsonLines(OutputStream out) {
+            super(out);
+            try {
+                json = new JsonFactory().createGenerator(this.out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            json.setRootValueSeparator(new SerializedString("\n"));
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        protected void header() { }
+
+        @Override
+        protected void row(ProcessTable processes, int row) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("type", "process");
+            json.writeStringField("scheduler", scheduler);
+            json.writeStringField("name", processes.name(row));
+            json.writeNumberField("arrival", processes.arrival(row));
+            json.writeNumberField("burst", processes.burst(row));
+            json.writeNumberField("priority", processes.priority(row));
+            json.writeNumberField("completion", processes.completion(row));
+            json.writeNumberField("waiting", processes.waiting(row));
+            json.writeNumberField("turnaround", processes.turnaround(row));
+            json.writeNumberField("response", processes.response(row));
+            for (int i = 0; i < columns.size(); i++) {
+                json.writeFieldName(columnKeys.get(i));
+                value(columns.get(i).apply(row));
+            }
+            json.writeEndObject();
+        }
+
+        @Override
+        protected void segmentRecord(String name, long start, long end) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("type", "segment");
+            json.writeStringField("scheduler", scheduler);
+            json.writeStringField("name", name);
+            json.writeNumberField("start", start);
+            json.writeNumberField("end", end);
+            json.writeEndObject();
+        }
+
+        @Override
+        protected void summaryRecord(ScheduleMetrics metrics) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("type", "summary");
+            json.writeStringField("scheduler", scheduler);
+            stats("waiting", metrics.waiting);
+            stats("turnaround", metrics.turnaround);
+            stats("response", metrics.response);
+            json.writeNumberField("fairness", metrics.fairness());
+            json.writeNumberField("utilization", metrics.utilization());
+            if (metrics.lateness.count() > 0) {
+                json.writeNumberField("deadlineMisses", metrics.deadlineMisses());
+                stats("lateness", metrics.lateness);
+            }
+            json.writeEndObject();
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            json.writeRaw('\n');
+            json.close();
+        }
+
+        private void stats(String name, LatencyStats stats) throws IOException {
+            json.writeObjectFieldStart(name);
+            json.writeNumberField("count", stats.count());
+            json.writeNumberField("mean", stats.mean());
+            json.writeNumberField("p50", stats.percentile(0.50));
+            json.writeNumberField("p99", stats.percentile(0.99));
+            json.writeNumberField("max", stats.max());
+            json.writeEndObject();
+        }
+
+        // Numbers and lists of numbers as JSON, anything else as a string
+        private void value(Object value) throws IOException {
+            if (value instanceof Integer || value instanceof Long) {
+                json.writeNumber(((Number) value).longValue());
+            } else if (value instanceof List) {
+                json.writeStartArray();
+                for (Object item : (List<?>) value) value(item);
+                json.writeEndArray();
+            } else {
+                json.writeString(String.valueOf(value));
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Content-addressed cache of ScheduleResults. A result is keyed by a SHA-256
+// over the workload's processes, the scheduler name and configKey(), the
+// ScheduleParams and the cache VERSION, so an unchanged input hits no matter
+// which file it came from, and any edit misses.
+//
+// Two tiers, both least recently used first out:
+//   memory  the most recent results, as they are, up to an estimated
+//           maxMemoryBytes of tables and timelines (estimatedBytes)
+//   disk    one file per result under the directory (execution order, per
+//           process completion, first dispatch, deadline miss and quantum
+//           history, and the deadline miss count), dropped
+//           once the directory holds more than maxDiskBytes of them
+//
+// Results read back from disk are rebuilt over a fork of the caller's workload
+// and have no counters. Safe to share between threads.
+public class ResultCache {
+    static final int MAGIC = 0x52534C54; // "RSLT"
+    // Part of every key: bump it when the file layout or any scheduler's results change
+    static final int VERSION = 4;
+    private static final String SUFFIX = ".result";
+    // Rough heap cost of one result row (input and execution columns) and of one timeline segment
+    static final int ROW_BYTES = 64;
+    static final int SEGMENT_BYTES = 20;
+
+    private final Path directory;
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    // Sizes of the files in the disk tier, least recently used first
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+    private long memoryHits, diskHits, misses;
+
+    public ResultCache(Path directory, long maxMemoryBytes, long maxDiskBytes) throws IOException {
+        this.directory = directory;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        Files.createDirectories(directory);
+        // Earlier runs' files, oldest use first; hits touch the modification time
+        List<Path> existing = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).forEach(existing::add);
+        }
+        existing.sort((a, b) -> lastModified(a).compareTo(lastModified(b)));
+        for (Path file : existing) {
+            long size = Files.size(file);
+            String name = file.getFileName().toString();
+            files.put(name.substring(0, name.length() - SUFFIX.length()), size);
+            diskBytes += size;
+        }
+        evict();
+    }
+
+    // Hash of the processes' content: names, arrivals, bursts, priorities and quanta in row order
+    public static String digest(ProcessTable processes) {
+        MessageDigest sha = sha256();
+        byte[] buffer = new byte[1 << 12];
+        int used = 0;
+        boolean deadlines = processes.hasDeadlines();
+        for (int row = 0; row < processes.size(); row++) {
+            byte[] name = processes.name(row).getBytes(StandardCharsets.UTF_8);
+            if (used + 24 + name.length > buffer.length) {
+                sha.update(buffer, 0, used);
+                used = 0;
+            }
+            if (24 + name.length > buffer.length) {
+                sha.update(name);
+            } else {
+                System.arraycopy(name, 0, buffer, used, name.length);
+                used += name.length;
+            }
+            used = putInt(buffer, used, name.length);
+            used = putInt(buffer, used, processes.arrival(row));
+            used = putInt(buffer, used, processes.burst(row));
+            used = putInt(buffer, used, processes.priority(row));
+            used = putInt(buffer, used, processes.initialQuantum(row));
+            // Absent unless the workload has deadlines, so digests of older workloads are unchanged
+            if (deadlines) used = putInt(buffer, used, processes.deadline(row));
+        }
+        sha.update(buffer, 0, used);
+        return hex(sha.digest());
+    }
+
+    // The cached result of running scheduler over the workload, or a fresh run that is then cached.
+    // digest is digest(workload.processes), taken once per workload by the caller.
+    public ScheduleResult schedule(Scheduler scheduler, Workload workload, ScheduleParams params, String digest) {
+        String key = key(digest, scheduler, params);
+        ScheduleResult result;
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                memoryHits++;
+                return entry.result;
+            }
+        }
+        result = read(key, scheduler.name(), workload, params);
+        if (result != null) {
+            synchronized (this) {
+                diskHits++;
+                remember(key, result);
+            }
+            return result;
+        }
+
+        result = scheduler.schedule(workload, params);
+        synchronized (this) {
+            misses++;
+            remember(key, result);
+        }
+        write(key, result);
+        return result;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("memory hits=%d disk hits=%d misses=%d memory=%d results/%d bytes disk=%d files/%d bytes",
+                memoryHits, diskHits, misses, memory.size(), memoryBytes, files.size(), diskBytes);
+    }
+
+    // Heap a cached result keeps alive: its table's rows and quantum histories, and its timeline
+    static long estimatedBytes(ScheduleResult result) {
+        ProcessTable processes = result.table();
+        long bytes = (long) processes.size() * ROW_BYTES + (long) result.timeline().size() * SEGMENT_BYTES;
+        for (int row = 0; row < processes.size(); row++) {
+            bytes += 4L * processes.quantumHistoryLength(row) + 8L * processes.quantumTimelineLength(row);
+        }
+        return bytes;
+    }
+
+    static String key(String digest, Scheduler scheduler, ScheduleParams params) {
+        MessageDigest sha = sha256();
+        sha.update((VERSION + "|" + digest + '|' + scheduler.name() + '|' + scheduler.configKey() + '|'
+                + params.contextSwitch + '|' + params.rrQuantum + '|' + params.agingInterval)
+                .getBytes(StandardCharsets.UTF_8));
+        return hex(sha.digest());
+    }
+
+    private ScheduleResult read(String key, String scheduler, Workload workload, ScheduleParams params) {
+        synchronized (this) {
+            if (files.get(key) == null) return null;
+        }
+        Path file = file(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key)) {
+                throw new IOException("Not a cached result for " + key);
+            }
+            ProcessTable processes = workload.processes.fork();
+            processes.reset();
+            int n = in.readInt();
+            if (n != processes.size()) throw new IOException("Cached result has " + n + " processes");
+            for (int row = 0; row < n; row++) {
+                processes.setCompletion(row, in.readLong());
+                long dispatched = in.readLong();
+                if (dispatched >= 0) processes.dispatch(row, dispatched);
+                long missed = in.readLong();
+                if (missed >= 0) processes.missDeadline(row, missed);
+                int history = in.readInt();
+                for (int i = 0; i < history; i++) processes.recordQuantum(row, in.readInt());
+            }
+            Timeline timeline = new Timeline(processes);
+            int segments = in.readInt();
+            for (int i = 0; i < segments; i++) timeline.append(in.readInt(), in.readLong(), in.readLong());
+            ScheduleMetrics metrics = metrics(processes);
+            // A run stopped early, e.g. EDF at maxMisses, also counted the misses of unfinished processes
+            metrics.unfinishedMisses(in.readLong() - metrics.deadlineMisses());
+
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new ScheduleResult(scheduler, params, processes, timeline, metrics, null);
+        } catch (IOException | RuntimeException e) {
+            // Unreadable or stale: drop it and run again
+            forget(key);
+            return null;
+        }
+    }
+
+    private void write(String key, ScheduleResult result) {
+        ProcessTable processes = result.table();
+        Timeline timeline = result.timeline();
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(key);
+                out.writeInt(processes.size());
+                for (int row = 0; row < processes.size(); row++) {
+                    out.writeLong(processes.completion(row));
+                    out.writeLong(processes.firstDispatch(row));
+                    out.writeLong(processes.deadlineMiss(row));
+                    int history = processes.quantumHistoryLength(row);
+                    out.writeInt(history);
+                    for (int i = 0; i < history; i++) out.writeInt(processes.quantumHistory(row, i));
+                }
+                out.writeInt(timeline.size());
+                for (int i = 0; i < timeline.size(); i++) {
+                    out.writeInt(timeline.row(i));
+                    out.writeLong(timeline.start(i));
+                    out.writeLong(timeline.end(i));
+                }
+                out.writeLong(result.metrics().deadlineMisses());
+            }
+            // Readers in this or another process only ever see complete files
+            Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(file(key));
+            synchronized (this) {
+                Long previous = files.put(key, size);
+                diskBytes += size - (previous == null ? 0 : previous);
+                evict();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Adds to the memory tier, dropping least recently used results until it fits; a
+    // result larger than the whole tier is only kept on disk
+    private synchronized void remember(String key, ScheduleResult result) {
+        Entry entry = new Entry(result, estimatedBytes(result));
+        Entry previous = memory.put(key, entry);
+        memoryBytes += entry.bytes - (previous == null ? 0 : previous.bytes);
+        Iterator<Entry> eldest = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            memoryBytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    // Drops least recently used files until the disk tier fits, keeping at least the newest
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && files.size() > 1) {
+            Map.Entry<String, Long> entry = eldest.next();
+            diskBytes -= entry.getValue();
+            eldest.remove();
+            try {
+                Files.deleteIfExists(file(entry.getKey()));
+            } catch (IOException e) {
+                // Another process may be holding it; it is no longer counted either way
+            }
+        }
+    }
+
+    private synchronized void forget(String key) {
+        Long size = files.remove(key);
+        if (size != null) diskBytes -= size;
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            // Left for a later eviction pass
+        }
+    }
+
+    // Same statistics the run would have recorded, in completion order; rows a run
+    // stopped early left unfinished (completion still 0) are not counted
+    private static ScheduleMetrics metrics(ProcessTable processes) {
+        Integer[] rows = new Integer[processes.size()];
+        for (int row = 0; row < rows.length; row++) rows[row] = row;
+        Arrays.sort(rows, (a, b) -> Long.compare(processes.completion(a), processes.completion(b)));
+        ScheduleMetrics metrics = new ScheduleMetrics();
+        for (int row : rows) {
+            if (processes.completion(row) == 0 && processes.burst(row) > 0) continue;
+            metrics.completed(processes, row);
+        }
+        return metrics;
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static int putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+        return offset + 4;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK ships SHA-256
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return hex.toString();
+    }
+
+    private static final class Entry {
+        final ScheduleResult result;
+        final long bytes;
+
+        Entry(ScheduleResult result, long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -1,96 +1,219 @@
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
-class SJFScheduler {
-    List<String> executionOrder = new ArrayList<>();
+class SJFScheduler implements Scheduler {
+    Timeline timeline;
+    ScheduleMetrics metrics;
     boolean is_unit_test;
     SJFScheduler(boolean is_unit_test) {
         this.is_unit_test = is_unit_test;
     }
+
+    @Override
+    public String name() {
+        return "SJF";
+    }
+
+    @Override
+    public ScheduleResult schedule(Workload workload, ScheduleParams params) {
+        ProcessTable processes = workload.processes.fork();
+        processes.reset();
+        Run run = new Run(processes, Arrivals.of(processes), params.contextSwitch, SchedulerEvent.Sink.NONE);
+        run.drain();
+        return new ScheduleResult(name(), params, processes, run);
+    }
+
     public void schedule(List<Process> processes, int contextSwitching) {
-        for (Process p : processes) {
-            p.reset();
-        }
+        ProcessTable table = ProcessTable.backing(processes);
+        schedule(table, contextSwitching);
+        table.copyResultsTo(processes);
+    }
 
-        int currentTime = 0;
-        int completedProcesses = 0;
-        int n = processes.size();
-        Process lastProcess = null;
+    public void schedule(ProcessTable processes, int contextSwitching) {
+        processes.reset();
+        Run run = new Run(processes, Arrivals.of(processes), contextSwitching, SchedulerEvent.Sink.NONE);
+        run.drain();
+        timeline = run.timeline;
+        metrics = run.metrics;
 
-        List<Process> readyQueue = new ArrayList<>();
+        if (!is_unit_test) {
+            printResults(processes);
+        }
+    }
 
-        while (completedProcesses < n) {
+    static class Run implements SchedulerRun {
+        private final ProcessTable processes;
+        private final Arrivals arrivals;
+        private final int contextSwitching;
+        private final SchedulerEvent.Sink events;
+        private final Timeline timeline;
+        private final ScheduleMetrics metrics = new ScheduleMetrics();
+        private final SchedulerCounters counters = SchedulerCounters.ENABLED ? new SchedulerCounters("SJF") : null;
+        private final IndexedMinHeap readyQueue;
+        private long currentTime;
+        private int lastProcess = -1;
+        private int completedProcesses;
+        private int stolen;
+        private long executed;
+
+        Run(ProcessTable processes, Arrivals arrivals, int contextSwitching, SchedulerEvent.Sink events) {
+            this.processes = processes;
+            this.arrivals = arrivals;
+            this.contextSwitching = contextSwitching;
+            this.events = events;
+            this.timeline = new Timeline(processes);
+            // Ready set keyed on (remainingTime, arrivalTime), ties keep input order
+            this.readyQueue = new IndexedMinHeap(processes.size(), (a, b) -> {
+                int cmp = Integer.compare(processes.remaining(a), processes.remaining(b));
+                if (cmp == 0) cmp = Integer.compare(processes.arrival(a), processes.arrival(b));
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            });
+        }
 
-            for (Process p : processes) {
-                if (p.getArrivalTime() <= currentTime && p.getRemainingTime() > 0 && !readyQueue.contains(p)) {
-                    readyQueue.add(p);
-                }
+        @Override
+        public boolean step() {
+            if (!arrivals.settled(currentTime)) return false;
+            long started = SchedulerCounters.ENABLED ? System.nanoTime() : 0;
+            while (arrivals.hasNext() && arrivals.peekTime() <= currentTime) {
+                readyQueue.add(arrivals.poll());
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
+            }
+            if (SchedulerCounters.ENABLED) {
+                counters.steps++;
+                counters.time(SchedulerCounters.Phase.ADMIT, started);
+                started = System.nanoTime();
             }
 
+            // Nothing ready: jump straight to the next arrival
             if (readyQueue.isEmpty()) {
-                currentTime++;
-                continue;
+                if (!arrivals.hasNext()) return false;
+                if (SchedulerCounters.ENABLED) {
+                    counters.idleJumps++;
+                    counters.idleTicks += arrivals.peekTime() - currentTime;
+                }
+                currentTime = arrivals.peekTime();
+                return true;
             }
 
-            Process currentProcess = readyQueue.stream()
-                    .min(Comparator.comparingInt(Process::getRemainingTime)
-                            .thenComparingInt(Process::getArrivalTime))
-                    .orElse(null);
+            int current = readyQueue.peek();
+            long start = currentTime;
+            if (current != lastProcess && lastProcess != -1) {
+                start += contextSwitching;
+            }
 
-            if (currentProcess != lastProcess) {
-                if (lastProcess != null) {
-                    currentTime += contextSwitching;
-                }
-                executionOrder.add(currentProcess.getName());
+            // Run until completion or the next arrival (which may preempt).
+            // Arrivals during a context switch are only seen after one unit of work.
+            int runTime = processes.remaining(current);
+            if (!arrivals.hasNext() && !arrivals.settled(start + runTime)) return false;
+            if (arrivals.hasNext()) {
+                long untilArrival = arrivals.peekTime() - start;
+                runTime = (int) Math.min(runTime, Math.max(1, untilArrival));
             }
 
-            currentProcess.setRemainingTime(currentProcess.getRemainingTime() - 1);
-            currentTime++;
-            lastProcess = currentProcess;
+            readyQueue.poll();
+            if (current != lastProcess) {
+                if (lastProcess != -1 && processes.remaining(lastProcess) > 0) {
+                    events.accept(SchedulerEvent.Type.PREEMPT, lastProcess, currentTime, 0);
+                    if (SchedulerCounters.ENABLED) counters.preempted(SchedulerCounters.Cause.SHORTER_JOB);
+                }
+                processes.dispatch(current, start);
+                events.accept(SchedulerEvent.Type.DISPATCH, current, start, 0);
+                if (SchedulerCounters.ENABLED) {
+                    counters.dispatches++;
+                    if (lastProcess != -1) counters.contextSwitches++;
+                }
+            }
+            processes.setRemaining(current, processes.remaining(current) - runTime);
+            executed += runTime;
+            timeline.appendMerged(current, start, start + runTime);
+            currentTime = start + runTime;
+            lastProcess = current;
 
-            if (currentProcess.getRemainingTime() == 0) {
+            if (processes.remaining(current) == 0) {
                 completedProcesses++;
-                readyQueue.remove(currentProcess);
+                processes.complete(current, currentTime);
+                events.accept(SchedulerEvent.Type.COMPLETE, current, currentTime, 0);
+                metrics.completed(processes, current);
+                if (SchedulerCounters.ENABLED) counters.completions++;
+            } else {
+                readyQueue.add(current);
+                if (SchedulerCounters.ENABLED) counters.readyQueueAdds++;
+            }
+            if (SchedulerCounters.ENABLED) {
+                counters.readyQueueRemoves++;
+                counters.time(SchedulerCounters.Phase.RUN, started);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean finished() {
+            return arrivals.exhausted() && completedProcesses + stolen == arrivals.size();
+        }
+
+        @Override
+        public long time() {
+            return currentTime;
+        }
 
-                currentProcess.setCompletionTime(currentTime);
-                currentProcess.setTurnaroundTime(currentProcess.getCompletionTime() - currentProcess.getArrivalTime());
-                currentProcess.setWaitingTime(currentProcess.getTurnaroundTime() - currentProcess.getBurstTime());
+        @Override
+        public long executedWork() {
+            return executed;
+        }
+
+        @Override
+        public boolean idle() {
+            return !arrivals.hasNext() && completedProcesses + stolen == arrivals.size();
+        }
+
+        @Override
+        public int steal() {
+            // Leaves of the heap hold the longer jobs
+            for (int slot = readyQueue.size() - 1; slot >= Math.max(0, readyQueue.size() - 2); slot--) {
+                int row = readyQueue.at(slot);
+                if (row != lastProcess) {
+                    readyQueue.remove(row);
+                    stolen++;
+                    return row;
+                }
             }
+            return -1;
         }
 
-        if (!is_unit_test) {
-            printResults(processes, executionOrder);
+        @Override
+        public Timeline timeline() {
+            return timeline;
+        }
+
+        @Override
+        public ScheduleMetrics metrics() {
+            return metrics;
+        }
+
+        @Override
+        public SchedulerCounters counters() {
+            return counters;
         }
     }
 
     List<String> getExecutionOrder() {
-        return executionOrder;
+        return timeline.executionOrder();
     }
 
-    private void printResults(List<Process> processes, List<String> executionOrder) {
-        System.out.println("\n========== SJF (Preemptive) Results ==========");
-        System.out.println("Execution Order: " + executionOrder);
-
-        System.out.println("---------------------------------------------------------------");
-        System.out.printf("%-10s %-15s %-15s\n", "Process", "Waiting Time", "Turnaround Time");
-        System.out.println("---------------------------------------------------------------");
-
-        double totalWaiting = 0;
-        double totalTurnaround = 0;
+    Timeline getTimeline() {
+        return timeline;
+    }
 
-        processes.sort(Comparator.comparing(Process::getName));
+    ScheduleMetrics getMetrics() {
+        return metrics;
+    }
 
-        for (Process p : processes) {
-            System.out.printf("%-10s %-15d %-15d\n",
-                    p.getName(), p.getWaitingTime(), p.getTurnaroundTime());
-            totalWaiting += p.getWaitingTime();
-            totalTurnaround += p.getTurnaroundTime();
+    private void printResults(ProcessTable processes) {
+        try (ReportWriter report = ReportWriter.stdout(ReportWriter.Format.TEXT)) {
+            report.write("SJF (Preemptive)", processes, timeline, metrics);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        System.out.println("---------------------------------------------------------------");
-        System.out.printf("Average Waiting Time: %.2f\n", (totalWaiting / processes.size()));
-        System.out.printf("Average Turnaround Time: %.2f\n", (totalTurnaround / processes.size()));
-        System.out.println("===============================================================");
     }
-}
\ No newline at end of file
+}
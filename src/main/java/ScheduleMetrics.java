@@ -0,0 +1,57 @@
+// Waiting, turnaround and response time statistics of one run, updated as each
+// process completes. Response time is the wait from arrival to first dispatch.
+// Fairness is Jain's index over each process's service rate, burst / turnaround:
+// 1 when every process got the CPU at the same rate, down to 1/n when one did.
+// Utilization is the completed work over the span from the first arrival to
+// the last completion. Processes with a deadline also record their lateness,
+// completion - deadline (0 when on time), and count a miss when it is positive.
+public class ScheduleMetrics {
+    public final LatencyStats waiting = new LatencyStats();
+    public final LatencyStats turnaround = new LatencyStats();
+    public final LatencyStats response = new LatencyStats();
+    public final LatencyStats lateness = new LatencyStats();
+    private long rates;
+    private double rateSum;
+    private double rateSquares;
+    private long work;
+    private long firstArrival = Long.MAX_VALUE;
+    private long lastCompletion = Long.MIN_VALUE;
+    private long deadlineMisses;
+
+    void completed(ProcessTable processes, int row) {
+        waiting.record(processes.waiting(row));
+        turnaround.record(processes.turnaround(row));
+        response.record(processes.response(row));
+        long turnaroundTime = processes.turnaround(row);
+        double rate = turnaroundTime == 0 ? 1 : (double) processes.burst(row) / turnaroundTime;
+        rates++;
+        rateSum += rate;
+        rateSquares += rate * rate;
+        work += processes.burst(row);
+        firstArrival = Math.min(firstArrival, processes.arrival(row));
+        lastCompletion = Math.max(lastCompletion, processes.completion(row));
+        int deadline = processes.deadline(row);
+        if (deadline != ProcessTable.NO_DEADLINE) {
+            long late = processes.completion(row) - deadline;
+            lateness.record(late);
+            if (late > 0) deadlineMisses++;
+        }
+    }
+
+    // Misses of processes that will not complete in this run, e.g. one stopped early
+    void unfinishedMisses(long count) {
+        deadlineMisses += count;
+    }
+
+    public double fairness() {
+        return rateSquares == 0 ? 1 : rateSum * rateSum / (rates * rateSquares);
+    }
+
+    public double utilization() {
+        return lastCompletion <= firstArrival ? (work > 0 ? 1 : 0) : (double) work / (lastCompletion - firstArrival);
+    }
+
+    public long deadlineMisses() {
+        return deadlineMisses;
+    }
+}
@@ -0,0 +1,38 @@
+// Run parameters for a Scheduler. Each scheduler reads the ones it uses:
+// SJF contextSwitch; RR rrQuantum and contextSwitch; Priority contextSwitch and
+// agingInterval; AG none (its quanta come from the processes); MLFQ contextSwitch
+// and rrQuantum as its base quantum; CFS contextSwitch and rrQuantum as its
+// minimum granularity; EDF contextSwitch.
+public final class ScheduleParams {
+    public final int contextSwitch;
+    public final int rrQuantum;
+    public final int agingInterval;
+
+    public ScheduleParams(int contextSwitch, int rrQuantum, int agingInterval) {
+        this.contextSwitch = contextSwitch;
+        this.rrQuantum = rrQuantum;
+        this.agingInterval = agingInterval;
+    }
+
+    // The parameters given in the workload file's "input" section
+    public static ScheduleParams of(Workload workload) {
+        return new ScheduleParams(workload.contextSwitch, workload.rrQuantum, workload.agingInterval);
+    }
+
+    public ScheduleParams withContextSwitch(int contextSwitch) {
+        return new ScheduleParams(contextSwitch, rrQuantum, agingInterval);
+    }
+
+    public ScheduleParams withRrQuantum(int rrQuantum) {
+        return new ScheduleParams(contextSwitch, rrQuantum, agingInterval);
+    }
+
+    public ScheduleParams withAgingInterval(int agingInterval) {
+        return new ScheduleParams(contextSwitch, rrQuantum, agingInterval);
+    }
+
+    @Override
+    public String toString() {
+        return "contextSwitch=" + contextSwitch + " rrQuantum=" + rrQuantum + " agingInterval=" + agingInterval;
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.List;
+
+// Outcome of one Scheduler call. It owns the forked table the run wrote into and
+// only exposes read accessors, so it can be handed between threads freely.
+public final class ScheduleResult {
+    private final String scheduler;
+    private final ScheduleParams params;
+    private final ProcessTable processes;
+    private final Timeline timeline;
+    private final ScheduleMetrics metrics;
+    private final SchedulerCounters counters;
+
+    ScheduleResult(String scheduler, ScheduleParams params, ProcessTable processes, SchedulerRun run) {
+        this(scheduler, params, processes, run.timeline(), run.metrics(), run.counters());
+    }
+
+    // A result rebuilt without running, e.g. from the ResultCache
+    ScheduleResult(String scheduler, ScheduleParams params, ProcessTable processes, Timeline timeline,
+                   ScheduleMetrics metrics, SchedulerCounters counters) {
+        this.scheduler = scheduler;
+        this.params = params;
+        this.processes = processes;
+        this.timeline = timeline;
+        this.metrics = metrics;
+        this.counters = counters;
+    }
+
+    public String scheduler() { return scheduler; }
+    public ScheduleParams params() { return params; }
+    public int size() { return processes.size(); }
+    public String name(int row) { return processes.name(row); }
+    public long completionTime(int row) { return processes.completion(row); }
+    public long waitingTime(int row) { return processes.waiting(row); }
+    public long turnaroundTime(int row) { return processes.turnaround(row); }
+    public List<Integer> quantumHistory(int row) { return processes.quantumHistory(row); }
+    public long responseTime(int row) { return processes.response(row); }
+    // When the row's deadline miss was reported, or -1
+    public long deadlineMissTime(int row) { return processes.deadlineMiss(row); }
+    public double averageWaitingTime() { return metrics.waiting.mean(); }
+    public double averageTurnaroundTime() { return metrics.turnaround.mean(); }
+    // Waiting, turnaround and response time distributions; not to be recorded into
+    public ScheduleMetrics metrics() { return metrics; }
+    // Internal counters of this run, or null unless -Dscheduler.instrument=true
+    public SchedulerCounters counters() { return counters; }
+    public Timeline timeline() { return timeline; }
+    // True when the run ended before every process completed, e.g. EDF at maxMisses
+    public boolean stopped() { return metrics.waiting.count() < processes.size(); }
+    public List<String> executionOrder() { return timeline.executionOrder(); }
+
+    ProcessTable table() {
+        return processes;
+    }
+
+    // Process views over the result rows, for the verifier
+    List<Process> processes() {
+        return processes.views();
+    }
+}
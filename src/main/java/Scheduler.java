@@ -0,0 +1,27 @@
+import java.util.Map;
+
+// Common entry point for the schedulers. Implementations keep no per-run state
+// in the instance: every call schedules a fork of the workload's table, so the
+// workload is never modified and one instance can serve many threads at once.
+public interface Scheduler {
+    String name();
+
+    ScheduleResult schedule(Workload workload, ScheduleParams params);
+
+    // The instance's own settings that change its results beyond name() and the
+    // ScheduleParams, e.g. for ResultCache keys; empty when it has none. Written as
+    // the key=value pairs configure() reads.
+    default String configKey() {
+        return "";
+    }
+
+    // A new instance with the given settings, as parsed from a scheduler spec such
+    // as "MLFQ quanta=2,4 boostInterval=30" by BatchRunner.scheduler
+    default Scheduler configure(Map<String, String> settings) {
+        throw new IllegalArgumentException(name() + " takes no settings, got " + settings.keySet());
+    }
+
+    default ScheduleResult schedule(Workload workload) {
+        return schedule(workload, ScheduleParams.of(workload));
+    }
+}
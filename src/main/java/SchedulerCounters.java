@@ -0,0 +1,133 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Internal counters of one scheduler run. Collection is switched on with
+// -Dscheduler.instrument=true; every update site is guarded by the static final
+// ENABLED flag, so with it off the JIT drops the instrumentation entirely.
+// A finished run is published as a SchedulerRunEvent for JFR and added to
+// per-scheduler totals, which snapshot() returns.
+public class SchedulerCounters {
+    public static final boolean ENABLED = Boolean.getBoolean("scheduler.instrument");
+
+    public enum Cause { QUANTUM_EXPIRED, HIGHER_PRIORITY, SHORTER_JOB, EARLIER_DEADLINE }
+    public enum Phase { ADMIT, AGING, RUN, AG_PHASE_1, AG_PHASE_2, AG_PHASE_3 }
+
+    private static final Map<String, SchedulerCounters> TOTALS = new TreeMap<>();
+
+    final String scheduler;
+    long steps;
+    long contextSwitches;
+    long dispatches;
+    long completions;
+    final long[] preemptions = new long[Cause.values().length];
+    long readyQueueAdds;
+    long readyQueueRemoves;
+    long idleJumps;
+    long idleTicks;
+    long agingUpdates;
+    long deadlineMisses;
+    final long[] phaseNanos = new long[Phase.values().length];
+
+    private final SchedulerRunEvent event;
+    private boolean published;
+
+    SchedulerCounters(String scheduler) {
+        this.scheduler = scheduler;
+        this.event = new SchedulerRunEvent();
+        event.begin();
+    }
+
+    void preempted(Cause cause) {
+        preemptions[cause.ordinal()]++;
+    }
+
+    // Adds the time since start (a System.nanoTime() value) to the phase
+    void time(Phase phase, long start) {
+        phaseNanos[phase.ordinal()] += System.nanoTime() - start;
+    }
+
+    // Called when the run has finished; only the first call has an effect
+    void publish() {
+        if (published) return;
+        published = true;
+        event.end();
+        if (event.shouldCommit()) {
+            event.scheduler = scheduler;
+            event.steps = steps;
+            event.contextSwitches = contextSwitches;
+            event.dispatches = dispatches;
+            event.completions = completions;
+            event.quantumExpiredPreemptions = preemptions[Cause.QUANTUM_EXPIRED.ordinal()];
+            event.priorityPreemptions = preemptions[Cause.HIGHER_PRIORITY.ordinal()];
+            event.shorterJobPreemptions = preemptions[Cause.SHORTER_JOB.ordinal()];
+            event.deadlinePreemptions = preemptions[Cause.EARLIER_DEADLINE.ordinal()];
+            event.readyQueueAdds = readyQueueAdds;
+            event.readyQueueRemoves = readyQueueRemoves;
+            event.idleJumps = idleJumps;
+            event.idleTicks = idleTicks;
+            event.agingUpdates = agingUpdates;
+            event.deadlineMisses = deadlineMisses;
+            event.admitNanos = phaseNanos[Phase.ADMIT.ordinal()];
+            event.agingNanos = phaseNanos[Phase.AGING.ordinal()];
+            event.runNanos = phaseNanos[Phase.RUN.ordinal()];
+            event.agPhase1Nanos = phaseNanos[Phase.AG_PHASE_1.ordinal()];
+            event.agPhase2Nanos = phaseNanos[Phase.AG_PHASE_2.ordinal()];
+            event.agPhase3Nanos = phaseNanos[Phase.AG_PHASE_3.ordinal()];
+            event.commit();
+        }
+        synchronized (TOTALS) {
+            TOTALS.computeIfAbsent(scheduler, SchedulerCounters::new).add(this);
+        }
+    }
+
+    // Counter values by name
+    public Map<String, Long> values() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("steps", steps);
+        values.put("contextSwitches", contextSwitches);
+        values.put("dispatches", dispatches);
+        values.put("completions", completions);
+        for (Cause cause : Cause.values()) values.put("preemptions." + cause, preemptions[cause.ordinal()]);
+        values.put("readyQueueAdds", readyQueueAdds);
+        values.put("readyQueueRemoves", readyQueueRemoves);
+        values.put("idleJumps", idleJumps);
+        values.put("idleTicks", idleTicks);
+        values.put("agingUpdates", agingUpdates);
+        values.put("deadlineMisses", deadlineMisses);
+        for (Phase phase : Phase.values()) values.put("nanos." + phase, phaseNanos[phase.ordinal()]);
+        return values;
+    }
+
+    // Totals over all published runs, by scheduler name
+    public static Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> snapshot = new LinkedHashMap<>();
+        synchronized (TOTALS) {
+            for (Map.Entry<String, SchedulerCounters> e : TOTALS.entrySet()) {
+                snapshot.put(e.getKey(), e.getValue().values());
+            }
+        }
+        return snapshot;
+    }
+
+    public static void resetTotals() {
+        synchronized (TOTALS) {
+            TOTALS.clear();
+        }
+    }
+
+    private void add(SchedulerCounters run) {
+        steps += run.steps;
+        contextSwitches += run.contextSwitches;
+        dispatches += run.dispatches;
+        completions += run.completions;
+        for (int i = 0; i < preemptions.length; i++) preemptions[i] += run.preemptions[i];
+        readyQueueAdds += run.readyQueueAdds;
+        readyQueueRemoves += run.readyQueueRemoves;
+        idleJumps += run.idleJumps;
+        idleTicks += run.idleTicks;
+        agingUpdates += run.agingUpdates;
+        deadlineMisses += run.deadlineMisses;
+        for (int i = 0; i < phaseNanos.length; i++) phaseNanos[i] += run.phaseNanos[i];
+    }
+}
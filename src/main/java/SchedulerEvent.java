@@ -0,0 +1,32 @@
+// A decision taken by an online scheduler run. value is the new quantum for
+// QUANTUM events (AG only), the missed deadline for DEADLINE_MISS events (EDF
+// only) and 0 otherwise.
+public final class SchedulerEvent {
+    public enum Type { DISPATCH, PREEMPT, COMPLETE, QUANTUM, DEADLINE_MISS }
+
+    // Receives events as a run takes decisions; batch runs use NONE
+    interface Sink {
+        Sink NONE = (type, row, time, value) -> { };
+
+        void accept(Type type, int row, long time, int value);
+    }
+
+    public final Type type;
+    public final String process;
+    public final int row;
+    public final long time;
+    public final int value;
+
+    SchedulerEvent(Type type, String process, int row, long time, int value) {
+        this.type = type;
+        this.process = process;
+        this.row = row;
+        this.time = time;
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return time + " " + type + " " + process + (type == Type.QUANTUM || type == Type.DEADLINE_MISS ? " " + value : "");
+    }
+}
@@ -0,0 +1,62 @@
+// One scheduling run that advances a decision at a time, so it can be driven
+// by a batch loop or fed arrivals by an OnlineScheduler as they happen.
+interface SchedulerRun {
+    // Takes the next decision. Returns false when the run has finished or the
+    // decision depends on arrivals that are not known yet.
+    boolean step();
+
+    boolean finished();
+
+    // Simulated time the run has reached
+    long time();
+
+    // Total CPU time spent running processes so far, context switches excluded
+    long executedWork();
+
+    // True when every process given to the run has completed or been stolen
+    boolean idle();
+
+    // Removes a waiting process so another core can run it, or returns -1.
+    // The process that ran last is never taken.
+    int steal();
+
+    Timeline timeline();
+
+    ScheduleMetrics metrics();
+
+    // Null unless SchedulerCounters.ENABLED
+    SchedulerCounters counters();
+
+    // Runs until step() returns false
+    default void drain() {
+        while (step()) { }
+        publishCounters();
+    }
+
+    // A run of the named scheduler (SJF, RR, Priority, AG, MLFQ, CFS or EDF) over the processes arrivals feeds it
+    static SchedulerRun start(String scheduler, ProcessTable processes, Arrivals arrivals, ScheduleParams params,
+                              SchedulerEvent.Sink events) {
+        switch (scheduler) {
+            case "SJF":
+                return new SJFScheduler.Run(processes, arrivals, params.contextSwitch, events);
+            case "RR":
+                return new RRScheduler(true).start(processes, arrivals, params, events);
+            case "Priority":
+                return new PriorityScheduler.Run(processes, arrivals, params.contextSwitch, params.agingInterval, events);
+            case "AG":
+                return new AGScheduler.Run(processes, arrivals, events);
+            case "MLFQ":
+                return new MLFQScheduler(true).start(processes, arrivals, params, events);
+            case "CFS":
+                return new CFSScheduler(true).start(processes, arrivals, params, events);
+            case "EDF":
+                return new EDFScheduler(true).start(processes, arrivals, params, events);
+            default:
+                throw new IllegalArgumentException("Unknown scheduler " + scheduler);
+        }
+    }
+
+    default void publishCounters() {
+        if (SchedulerCounters.ENABLED && finished()) counters().publish();
+    }
+}
@@ -0,0 +1,37 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR event for one finished scheduler run, filled from its SchedulerCounters.
+// Only created when -Dscheduler.instrument=true; record with e.g.
+// -XX:StartFlightRecording:filename=run.jfr and view with "jfr print --events scheduler.Run".
+@Name("scheduler.Run")
+@Label("Scheduler Run")
+@Category("CPU Scheduler Simulator")
+@Description("Counters of one scheduling run; the event duration is the run's wall-clock time")
+class SchedulerRunEvent extends Event {
+    @Label("Scheduler") String scheduler;
+    @Label("Steps") long steps;
+    @Label("Context Switches") long contextSwitches;
+    @Label("Dispatches") long dispatches;
+    @Label("Completions") long completions;
+    @Label("Quantum Expired Preemptions") long quantumExpiredPreemptions;
+    @Label("Priority Preemptions") long priorityPreemptions;
+    @Label("Shorter Job Preemptions") long shorterJobPreemptions;
+    @Label("Earlier Deadline Preemptions") long deadlinePreemptions;
+    @Label("Ready Queue Adds") long readyQueueAdds;
+    @Label("Ready Queue Removes") long readyQueueRemoves;
+    @Label("Idle Jumps") long idleJumps;
+    @Label("Idle Ticks Skipped") long idleTicks;
+    @Label("Aging Updates") long agingUpdates;
+    @Label("Deadline Misses") long deadlineMisses;
+    @Label("Admit Time") @Timespan long admitNanos;
+    @Label("Aging Time") @Timespan long agingNanos;
+    @Label("Run Time") @Timespan long runNanos;
+    @Label("AG Phase 1 Time") @Timespan long agPhase1Nanos;
+    @Label("AG Phase 2 Time") @Timespan long agPhase2Nanos;
+    @Label("AG Phase 3 Time") @Timespan long agPhase3Nanos;
+}
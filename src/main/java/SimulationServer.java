@@ -0,0 +1,407 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Long-running simulation server, so a pipeline pays JVM startup, Jackson setup
+// and JIT warm-up once instead of per workload. It listens on a loopback TCP
+// port or a Unix domain socket and speaks JSON Lines: every request line is
+//
+//   {"id": <any>, "scheduler": "RR", "workload": <a JsonStructure document>}
+//
+// and gets one response line, in request order, shaped like an expectedOutput
+// entry (executionOrder, processResults, averages) plus fairness, utilization
+// and, for workloads with deadlines, deadlineMisses. scheduler is a spec as in
+// BatchRunner.scheduler, e.g. "EDF maxMisses=2". When the workload has an
+// expectedOutput for that spec, status is PASS or FAIL (with detail) as in
+// BatchRunner, otherwise RUN. A line that cannot be served gets {"id", "error"}
+// and the connection stays open: malformed JSON, a line over MAX_REQUEST_CHARS
+// or a workload validate() rejects.
+//
+// Each connection is served on its own pooled thread; requests on one connection
+// run one after another, so clients wanting parallelism open more connections or
+// pipeline on several. Responses are flushed once no further request is buffered.
+// At most MAX_CONNECTIONS are served at once, further clients wait to be accepted,
+// so the heap needed is bounded by that many of the largest requests allowed.
+public class SimulationServer implements AutoCloseable {
+    // Processes per warm-up workload and rounds per scheduler
+    static final int WARM_UP_PROCESSES = 2000;
+    static final int WARM_UP_ROUNDS = 20;
+    // Connections served at once
+    static final int MAX_CONNECTIONS = 8;
+    // Longest request line read; anything longer is skipped unparsed
+    static final int MAX_REQUEST_CHARS = 1 << 23;
+    // Largest workload run: processes, and total burst, which bounds the slices and so the timeline
+    static final int MAX_PROCESSES = 100_000;
+    static final long MAX_TOTAL_BURST = 1L << 21;
+
+    private final ServerSocketChannel server;
+    private final ResultCache cache;
+    private final ExecutorService connections;
+    private final Semaphore connectionSlots = new Semaphore(MAX_CONNECTIONS);
+    private final AtomicLong requests = new AtomicLong();
+    private final JsonFactory json = WorkloadReader.FACTORY;
+
+    public static void main(String[] args) throws IOException {
+        SocketAddress address = null;
+        Path cacheDirectory = null;
+        boolean warmUp = true;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[++i]));
+            } else if (args[i].equals("--unix") && i + 1 < args.length) {
+                address = UnixDomainSocketAddress.of(args[++i]);
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheDirectory = Path.of(args[++i]);
+            } else if (args[i].equals("--no-warm-up")) {
+                warmUp = false;
+            } else {
+                address = null;
+                break;
+            }
+        }
+        if (address == null) {
+            System.out.println("Usage: SimulationServer (--port <port> | --unix <socket path>) [--cache <dir>]"
+                    + " [--no-warm-up]");
+            return;
+        }
+        ResultCache cache = cacheDirectory == null ? null
+                : new ResultCache(cacheDirectory, Main.CACHE_MEMORY_BYTES, Main.CACHE_DISK_BYTES);
+        if (warmUp) warmUp();
+        try (SimulationServer server = new SimulationServer(address, cache)) {
+            System.out.println("Serving " + BatchRunner.SCHEDULERS.length + " schedulers on " + server.address());
+            server.serve();
+        }
+    }
+
+    // A stale socket file from an earlier run is replaced; any other file at the path is left alone
+    public SimulationServer(SocketAddress address, ResultCache cache) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            Path socket = ((UnixDomainSocketAddress) address).getPath();
+            if (Files.exists(socket, LinkOption.NOFOLLOW_LINKS) && Files.readAttributes(socket,
+                    BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther()) {
+                Files.delete(socket);
+            }
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+        }
+        server.bind(address);
+        this.cache = cache;
+        AtomicInteger threads = new AtomicInteger();
+        this.connections = Executors.newFixedThreadPool(MAX_CONNECTIONS, task -> {
+            Thread thread = new Thread(task, "simulation-connection-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs every scheduler on generated workloads until the JIT has compiled the hot paths
+    static void warmUp() {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.processes = WARM_UP_PROCESSES;
+        generator.deadlines = true;
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            generator.seed = round;
+            Workload workload = generator.generate();
+            for (Scheduler scheduler : BatchRunner.SCHEDULERS) scheduler.schedule(workload);
+        }
+    }
+
+    public SocketAddress address() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    // Accepts connections until close(), each once a slot is free
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                connectionSlots.acquireUninterruptibly();
+                SocketChannel connection;
+                try {
+                    connection = server.accept();
+                } catch (IOException | RuntimeException e) {
+                    connectionSlots.release();
+                    throw e;
+                }
+                connections.execute(() -> {
+                    try {
+                        handle(connection);
+                    } finally {
+                        connectionSlots.release();
+                    }
+                });
+            }
+        } catch (ClosedChannelException e) {
+            // closed by close()
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        SocketAddress address = server.getLocalAddress();
+        server.close();
+        connections.shutdownNow();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    private void handle(SocketChannel connection) {
+        try (connection;
+             RequestReader in = new RequestReader(new InputStreamReader(
+                     Channels.newInputStream(connection), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                     Channels.newOutputStream(connection), StandardCharsets.UTF_8));
+             JsonGenerator response = json.createGenerator(out)) {
+            response.setRootValueSeparator(null);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (in.tooLong) {
+                    error(null, "Request longer than " + MAX_REQUEST_CHARS + " characters", response);
+                } else if (line.isBlank()) {
+                    continue;
+                } else {
+                    serve(line, response);
+                }
+                response.writeRaw('\n');
+                requests.incrementAndGet();
+                if (!in.ready()) response.flush();
+            }
+        } catch (IOException e) {
+            // the client went away; nothing to answer
+        }
+    }
+
+    // Answers one request line
+    private void serve(String line, JsonGenerator response) throws IOException {
+        JsonNode id = null;
+        String scheduler = null;
+        Workload workload = null;
+        try (JsonParser parser = json.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a request object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id":
+                        id = parser.readValueAsTree();
+                        break;
+                    case "scheduler":
+                        scheduler = parser.getValueAsString();
+                        break;
+                    case "workload":
+                        if (value != JsonToken.START_OBJECT) {
+                            throw new JsonParseException(parser, "Expected a workload object");
+                        }
+                        workload = WorkloadReader.readObject(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            if (scheduler == null) throw new IllegalArgumentException("Missing scheduler");
+            if (workload == null) throw new IllegalArgumentException("Missing workload");
+            String spec = scheduler.trim();
+            Scheduler instance = BatchRunner.scheduler(spec);
+            validate(instance, workload);
+            result(id, spec, instance, workload, response);
+        } catch (IOException | RuntimeException e) {
+            error(id, e instanceof JsonParseException
+                    ? "Malformed request: " + e.getMessage().lines().findFirst().orElse("") : e.getMessage(), response);
+        }
+    }
+
+    // Rejects workloads the engines cannot run sensibly, before any work is done:
+    // a negative context switch or burst, RR without a positive rrQuantum, Priority
+    // without a positive agingInterval and AG without positive process quanta.
+    // MLFQ and CFS check rrQuantum themselves when their settings do not replace it.
+    // Workloads over MAX_PROCESSES or MAX_TOTAL_BURST are refused as too large.
+    static void validate(Scheduler scheduler, Workload workload) {
+        if (workload.contextSwitch < 0) {
+            throw new IllegalArgumentException("contextSwitch must be >= 0, got " + workload.contextSwitch);
+        }
+        if (scheduler.name().equals("RR") && workload.rrQuantum < 1) {
+            throw new IllegalArgumentException("rrQuantum must be >= 1, got " + workload.rrQuantum);
+        }
+        if (scheduler.name().equals("Priority") && workload.agingInterval < 1) {
+            throw new IllegalArgumentException("agingInterval must be >= 1, got " + workload.agingInterval);
+        }
+        ProcessTable processes = workload.processes;
+        if (processes.size() > MAX_PROCESSES) {
+            throw new IllegalArgumentException("Workload has " + processes.size() + " processes, at most "
+                    + MAX_PROCESSES + " are served");
+        }
+        boolean ag = scheduler.name().equals("AG");
+        long totalBurst = 0;
+        for (int row = 0; row < processes.size(); row++) {
+            if (processes.burst(row) < 0) {
+                throw new IllegalArgumentException("Process " + processes.name(row) + " has burst "
+                        + processes.burst(row) + ", must be >= 0");
+            }
+            if (ag && processes.initialQuantum(row) < 1) {
+                throw new IllegalArgumentException("Process " + processes.name(row) + " has AG quantum "
+                        + processes.initialQuantum(row) + ", must be >= 1");
+            }
+            totalBurst += processes.burst(row);
+        }
+        if (totalBurst > MAX_TOTAL_BURST) {
+            throw new IllegalArgumentException("Workload has a total burst of " + totalBurst + ", at most "
+                    + MAX_TOTAL_BURST + " is served");
+        }
+    }
+
+    private void result(JsonNode id, String spec, Scheduler scheduler, Workload workload, JsonGenerator response)
+            throws IOException {
+        ScheduleResult result = cache == null ? scheduler.schedule(workload)
+                : cache.schedule(scheduler, workload, ScheduleParams.of(workload),
+                        ResultCache.digest(workload.processes));
+        Map<String, JsonStructure.AlgorithmResult> expected = BatchRunner.expectedResults(workload.expectedOutput);
+        String status = "RUN";
+        String detail = null;
+        if (expected != null && expected.containsKey(spec)) {
+            detail = Verifier.verify(result, expected.get(spec));
+            status = detail == null ? "PASS" : "FAIL";
+        }
+
+        response.writeStartObject();
+        id(id, response);
+        response.writeStringField("scheduler", spec);
+        response.writeStringField("status", status);
+        if (detail != null) response.writeStringField("detail", detail);
+        response.writeArrayFieldStart("executionOrder");
+        for (String name : result.executionOrder()) response.writeString(name);
+        response.writeEndArray();
+        response.writeArrayFieldStart("processResults");
+        for (int row = 0; row < result.size(); row++) {
+            response.writeStartObject();
+            response.writeStringField("name", result.name(row));
+            response.writeNumberField("waitingTime", result.waitingTime(row));
+            response.writeNumberField("turnaroundTime", result.turnaroundTime(row));
+            response.writeNumberField("responseTime", result.responseTime(row));
+            List<Integer> history = result.quantumHistory(row);
+            if (!history.isEmpty()) {
+                response.writeArrayFieldStart("quantumHistory");
+                for (int quantum : history) response.writeNumber(quantum);
+                response.writeEndArray();
+            }
+            response.writeEndObject();
+        }
+        response.writeEndArray();
+        response.writeNumberField("averageWaitingTime", result.averageWaitingTime());
+        response.writeNumberField("averageTurnaroundTime", result.averageTurnaroundTime());
+        response.writeNumberField("fairness", result.metrics().fairness());
+        response.writeNumberField("utilization", result.metrics().utilization());
+        if (result.metrics().lateness.count() > 0) {
+            response.writeNumberField("deadlineMisses", result.metrics().deadlineMisses());
+        }
+        response.writeEndObject();
+    }
+
+    private static void error(JsonNode id, String message, JsonGenerator response) throws IOException {
+        response.writeStartObject();
+        id(id, response);
+        response.writeStringField("error", message);
+        response.writeEndObject();
+    }
+
+    // Echoes the request's id as it was sent, or null
+    private static void id(JsonNode id, JsonGenerator response) throws IOException {
+        response.writeFieldName("id");
+        if (id == null) {
+            response.writeNull();
+        } else {
+            response.writeTree(id);
+        }
+    }
+
+    // Reads lines like BufferedReader.readLine, but never holds more than
+    // MAX_REQUEST_CHARS of one: the rest of a longer line is skipped and it comes
+    // back empty with tooLong set.
+    private static final class RequestReader implements AutoCloseable {
+        private final Reader in;
+        private final char[] buffer = new char[1 << 13];
+        private int position;
+        private int limit;
+        boolean tooLong;
+
+        RequestReader(Reader in) {
+            this.in = in;
+        }
+
+        // The next line without its terminator, or null at the end of the stream
+        String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            tooLong = false;
+            while (true) {
+                if (position == limit) {
+                    int read = in.read(buffer);
+                    if (read <= 0) return line.length() == 0 && !tooLong ? null : text(line);
+                    position = 0;
+                    limit = read;
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') position++;
+                if (!tooLong && line.length() + (position - start) > MAX_REQUEST_CHARS) {
+                    tooLong = true;
+                    line.setLength(0);
+                }
+                if (!tooLong) line.append(buffer, start, position - start);
+                if (position < limit) {
+                    position++;
+                    return text(line);
+                }
+            }
+        }
+
+        // True when a line can be read without blocking, as far as is known
+        boolean ready() throws IOException {
+            return position < limit || in.ready();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private String text(StringBuilder line) {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') length--;
+            return line.substring(0, length);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Multi-core simulation. Every core runs its own instance of one of the single
+// CPU policies (SJF, RR, Priority, AG, MLFQ, CFS, EDF) over its own run queue; the policies are
+// the same Run classes the single core schedulers use, fed through Arrivals.
+//
+// The cores are coordinated by events, not ticks. Each core carries a lower
+// bound on when it runs out of work (the time it reached plus the work it still
+// holds). Cores sit in heaps keyed on that bound, so placing an arrival on the
+// least loaded core or finding the next core that may go idle is O(log cores).
+// Only at that bound is the core simulated forward and checked: if it is idle
+// it steals a waiting process from the most loaded cores, otherwise its bound
+// is raised and it goes back into the heap.
+//
+// A stolen process leaves its old core at that core's last decision point and
+// arrives on the new one as a fresh process holding its remaining burst (AG:
+// its current quantum). Aging progress and AG quantum history do not migrate.
+public class SmpScheduler {
+    public enum Placement { ROUND_ROBIN, LEAST_LOADED }
+
+    // Victims tried per steal, in decreasing order of load
+    private static final int STEAL_ATTEMPTS = 4;
+
+    public String scheduler = "RR";
+    public int cores = 4;
+    public Placement placement = Placement.LEAST_LOADED;
+    public boolean workStealing = true;
+
+    public static class CoreStats {
+        public final int core;
+        public final int placed;       // processes placed here on arrival
+        public final int migratedIn;   // processes stolen by this core
+        public final int migratedOut;  // processes stolen from this core
+        public final long busyTime;
+        public final double utilization;
+        public final Timeline timeline;
+
+        CoreStats(int core, int placed, int migratedIn, int migratedOut, long busyTime, long makespan,
+                  Timeline timeline) {
+            this.core = core;
+            this.placed = placed;
+            this.migratedIn = migratedIn;
+            this.migratedOut = migratedOut;
+            this.busyTime = busyTime;
+            this.utilization = makespan == 0 ? 0 : (double) busyTime / makespan;
+            this.timeline = timeline;
+        }
+    }
+
+    public static class Result {
+        public final String scheduler;
+        public final long makespan;
+        public final long migrations;
+        public final ScheduleMetrics metrics;
+        public final List<CoreStats> cores;
+
+        Result(String scheduler, long makespan, long migrations, ScheduleMetrics metrics, List<CoreStats> cores) {
+            this.scheduler = scheduler;
+            this.makespan = makespan;
+            this.migrations = migrations;
+            this.metrics = metrics;
+            this.cores = cores;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: SmpScheduler <workload.json|.bin> <SJF|RR|Priority|AG|MLFQ|CFS|EDF> <cores>"
+                    + " [round-robin|least-loaded] [--no-steal]");
+            return;
+        }
+        SmpScheduler smp = new SmpScheduler();
+        smp.scheduler = args[1];
+        smp.cores = Integer.parseInt(args[2]);
+        for (int i = 3; i < args.length; i++) {
+            switch (args[i]) {
+                case "round-robin": smp.placement = Placement.ROUND_ROBIN; break;
+                case "least-loaded": smp.placement = Placement.LEAST_LOADED; break;
+                case "--no-steal": smp.workStealing = false; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        Workload workload = BatchRunner.load(Path.of(args[0]));
+        print(smp.run(workload, ScheduleParams.of(workload)));
+    }
+
+    public Result run(Workload workload, ScheduleParams params) {
+        if (cores < 1) throw new IllegalArgumentException("Need at least one core");
+        return new Simulation(workload.processes.fork(), params).run();
+    }
+
+    public static void print(Result result) {
+        System.out.println("\n========== SMP " + result.scheduler + " on " + result.cores.size() + " cores ==========");
+        System.out.printf("%-6s %-8s %-8s %-8s %-12s %s%n", "Core", "Placed", "In", "Out", "Busy", "Utilization");
+        for (CoreStats core : result.cores) {
+            System.out.printf("%-6d %-8d %-8d %-8d %-12d %.1f%%%n", core.core, core.placed, core.migratedIn,
+                    core.migratedOut, core.busyTime, core.utilization * 100);
+        }
+        System.out.println("Makespan:   " + result.makespan);
+        System.out.println("Migrations: " + result.migrations);
+        System.out.println("Waiting:    " + result.metrics.waiting);
+        System.out.println("Turnaround: " + result.metrics.turnaround);
+        System.out.println("Response:   " + result.metrics.response);
+        System.out.printf("Fairness:   %.4f%n", result.metrics.fairness());
+        if (result.metrics.lateness.count() > 0) {
+            System.out.println("Misses:     " + result.metrics.deadlineMisses() + " of "
+                    + result.metrics.lateness.count() + " deadlines");
+            System.out.println("Lateness:   " + result.metrics.lateness);
+        }
+    }
+
+    private static class Core {
+        final ProcessTable processes = new ProcessTable();
+        final Arrivals arrivals = new Arrivals(processes);
+        SchedulerRun run;
+        int[] globalRow = new int[16];
+        long watermark = Long.MIN_VALUE;
+        long landedWork;
+        long stolenWork;
+        int live; // given to this core and neither completed nor stolen
+        int placed;
+        int migratedIn;
+        int migratedOut;
+
+        // Work given to this core that has not run yet
+        long outstanding() {
+            return landedWork - stolenWork - run.executedWork();
+        }
+    }
+
+    private class Simulation {
+        final ProcessTable processes;
+        final ScheduleParams params;
+        final ScheduleMetrics metrics = new ScheduleMetrics();
+        final Core[] core = new Core[cores];
+        // Lower bound on when each core runs out of work
+        final long[] drainBound = new long[cores];
+        final boolean[] busy = new boolean[cores];
+        final IndexedMinHeap busyByDrain;
+        final IndexedMinHeap leastLoaded;
+        final IndexedMinHeap mostLoaded;
+        long makespan;
+        long migrations;
+        int nextCore;
+
+        Simulation(ProcessTable processes, ScheduleParams params) {
+            this.processes = processes;
+            this.params = params;
+            processes.reset();
+            IndexedMinHeap.IdComparator byDrain = (a, b) -> {
+                int cmp = Long.compare(drainBound[a], drainBound[b]);
+                return cmp != 0 ? cmp : Integer.compare(a, b);
+            };
+            busyByDrain = new IndexedMinHeap(cores, byDrain);
+            leastLoaded = new IndexedMinHeap(cores, byDrain);
+            mostLoaded = new IndexedMinHeap(cores, (a, b) -> byDrain.compare(b, a));
+            for (int k = 0; k < cores; k++) {
+                Core c = core[k] = new Core();
+                c.run = SchedulerRun.start(scheduler, c.processes, c.arrivals, params, sink(c));
+                leastLoaded.add(k);
+            }
+        }
+
+        // Carries first dispatch, deadline misses and completion of a core's rows back to the workload's rows
+        SchedulerEvent.Sink sink(Core c) {
+            return (type, row, time, value) -> {
+                if (type == SchedulerEvent.Type.DISPATCH) {
+                    processes.dispatch(c.globalRow[row], time);
+                } else if (type == SchedulerEvent.Type.DEADLINE_MISS) {
+                    processes.missDeadline(c.globalRow[row], time);
+                } else if (type == SchedulerEvent.Type.COMPLETE) {
+                    int global = c.globalRow[row];
+                    c.live--;
+                    processes.complete(global, time);
+                    metrics.completed(processes, global);
+                    makespan = Math.max(makespan, time);
+                }
+            };
+        }
+
+        Result run() {
+            int[] order = processes.sortedByArrival();
+            int next = 0;
+            while (true) {
+                long arrival = next < order.length ? processes.arrival(order[next]) : Long.MAX_VALUE;
+                int k = busyByDrain.peek();
+                long check = k < 0 ? Long.MAX_VALUE : drainBound[k];
+                if (arrival == Long.MAX_VALUE && check == Long.MAX_VALUE) break;
+
+                // Arrivals first on ties, so a core is never checked at a time that can still get arrivals
+                if (arrival <= check) {
+                    int row = order[next++];
+                    int target = placement == Placement.ROUND_ROBIN ? nextCore++ % cores : leastLoaded.peek();
+                    core[target].placed++;
+                    land(target, row, arrival, processes.burst(row), processes.initialQuantum(row), false);
+                    continue;
+                }
+
+                advance(k, check);
+                if (core[k].run.idle()) {
+                    setIdle(k, check);
+                    if (workStealing) steal(k, check);
+                } else {
+                    Core c = core[k];
+                    setDrainBound(k, Math.max(check + 1, c.run.time() + c.outstanding()));
+                }
+            }
+
+            List<CoreStats> stats = new ArrayList<>();
+            for (int k = 0; k < cores; k++) {
+                Core c = core[k];
+                c.arrivals.close();
+                c.run.drain();
+                stats.add(new CoreStats(k, c.placed, c.migratedIn, c.migratedOut, c.run.executedWork(), makespan,
+                        c.run.timeline()));
+            }
+            return new Result(scheduler, makespan, migrations, metrics, stats);
+        }
+
+        // Gives a workload row to core k as a new local process arriving at time
+        void land(int k, int row, long time, int burst, int quantum, boolean migrated) {
+            Core c = core[k];
+            int local = c.processes.add(processes.name(row), Math.toIntExact(time), burst,
+                    processes.priority(row), quantum, processes.deadline(row));
+            if (local == c.globalRow.length) c.globalRow = Arrays.copyOf(c.globalRow, local * 2);
+            c.globalRow[local] = row;
+            if (migrated) {
+                c.arrivals.migrate(local);
+            } else {
+                c.arrivals.add(local);
+            }
+            c.landedWork += burst;
+            c.live++;
+            if (!busy[k]) {
+                busy[k] = true;
+                drainBound[k] = time + burst;
+                busyByDrain.add(k);
+                mostLoaded.add(k);
+                leastLoaded.update(k);
+            } else {
+                setDrainBound(k, Math.max(drainBound[k], time) + burst);
+            }
+        }
+
+        // Simulates core k up to time, as far as its known arrivals allow
+        void advance(int k, long time) {
+            Core c = core[k];
+            if (time > c.watermark) {
+                c.watermark = time;
+                c.arrivals.advanceTo(time);
+            }
+            c.run.drain();
+        }
+
+        void steal(int thief, long time) {
+            int[] tried = new int[STEAL_ATTEMPTS];
+            int attempts = 0;
+            while (attempts < STEAL_ATTEMPTS && !mostLoaded.isEmpty()) {
+                int victim = mostLoaded.poll();
+                tried[attempts++] = victim;
+                Core from = core[victim];
+                advance(victim, time);
+                // A core's only process stays put, or it would bounce between idle cores
+                if (from.live < 2) continue;
+                int local = from.run.steal();
+                if (local < 0) continue;
+
+                int remaining = from.processes.remaining(local);
+                from.stolenWork += remaining;
+                from.live--;
+                from.migratedOut++;
+                core[thief].migratedIn++;
+                migrations++;
+                setDrainBound(victim, Math.max(time, drainBound[victim] - remaining));
+                land(thief, from.globalRow[local], time, remaining, from.processes.quantum(local), true);
+                break;
+            }
+            for (int i = 0; i < attempts; i++) {
+                if (busy[tried[i]]) mostLoaded.add(tried[i]);
+            }
+        }
+
+        void setIdle(int k, long time) {
+            busy[k] = false;
+            busyByDrain.remove(k);
+            mostLoaded.remove(k);
+            setDrainBound(k, time);
+        }
+
+        void setDrainBound(int k, long bound) {
+            drainBound[k] = bound;
+            busyByDrain.update(k);
+            leastLoaded.update(k);
+            mostLoaded.update(k);
+        }
+    }
+}
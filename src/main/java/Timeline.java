@@ -0,0 +1,69 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// Gantt chart of one scheduling run: (row, start, end) segments kept in
+// parallel primitive arrays. The execution order the schedulers report is the
+// sequence of segment names and is derived from here on demand.
+public class Timeline {
+    private final ProcessTable processes;
+    private int[] rows;
+    private long[] starts;
+    private long[] ends;
+    private int size;
+
+    public Timeline(ProcessTable processes) {
+        this.processes = processes;
+        this.rows = new int[16];
+        this.starts = new long[16];
+        this.ends = new long[16];
+    }
+
+    // Adds a new segment, even if it continues the previous one
+    void append(int row, long start, long end) {
+        if (size == rows.length) grow();
+        rows[size] = row;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    // Extends the last segment when the same row carries on without a gap
+    void appendMerged(int row, long start, long end) {
+        if (size > 0 && rows[size - 1] == row && ends[size - 1] == start) {
+            ends[size - 1] = end;
+        } else {
+            append(row, start, end);
+        }
+    }
+
+    public int size() { return size; }
+    public int row(int segment) { return rows[segment]; }
+    public long start(int segment) { return starts[segment]; }
+    public long end(int segment) { return ends[segment]; }
+    public String name(int segment) { return processes.name(rows[segment]); }
+    public ProcessTable processes() { return processes; }
+
+    // Names of the segments in order, resolved lazily
+    public List<String> executionOrder() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                if (index >= size) throw new IndexOutOfBoundsException(index);
+                return name(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void grow() {
+        int capacity = rows.length * 2;
+        rows = Arrays.copyOf(rows, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+    }
+}
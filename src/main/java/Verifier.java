@@ -0,0 +1,121 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Checks a run against a golden AlgorithmResult in linear time. The execution
+// order is walked segment by segment and stops at the first divergence, which
+// is reported with its index, simulated start time and both process names.
+// Process results are looked up through a name index instead of a scan.
+// Optional metrics an expected result gives are checked too.
+final class Verifier {
+    // Lets fixtures round the fairness index to four decimals
+    static final double FAIRNESS_TOLERANCE = 1e-4;
+
+    private Verifier() { }
+
+    // Describes how the result differs from the expected one, or returns null when it matches
+    static String verify(ScheduleResult result, JsonStructure.AlgorithmResult expected) {
+        String mismatch = verify(result.processes(), result.executionOrder(), result.timeline(), expected);
+        String metrics = verifyMetrics(result, expected);
+        if (metrics == null) return mismatch;
+        return (mismatch == null ? "" : mismatch) + "Metrics Mismatch\n" + metrics;
+    }
+
+    // As above for Process lists; without a timeline no times are reported
+    static String verify(List<Process> processes, List<String> order, Timeline timeline,
+                         JsonStructure.AlgorithmResult expected) {
+        StringBuilder mismatch = new StringBuilder();
+        String divergence = firstDivergence(order, timeline, expected.executionOrder);
+        if (divergence != null) {
+            mismatch.append("Execution Order Mismatch\n").append(divergence);
+        }
+        String stats = verifyStats(processes, expected.processResults);
+        if (stats != null) {
+            mismatch.append("Statistics (Wait/Turnaround/Quantum History[if AG]) Mismatch\n").append(stats);
+        }
+        return mismatch.length() == 0 ? null : mismatch.toString();
+    }
+
+    static String firstDivergence(List<String> actual, Timeline timeline, List<String> expected) {
+        int length = Math.max(actual.size(), expected.size());
+        for (int i = 0; i < length; i++) {
+            String want = i < expected.size() ? expected.get(i) : null;
+            String got = i < actual.size() ? actual.get(i) : null;
+            if (want != null && want.equals(got)) continue;
+
+            StringBuilder report = new StringBuilder("First divergence at index ").append(i);
+            if (timeline != null && timeline.size() > 0) {
+                // Past the end of the timeline, the time it finished
+                long time = i < timeline.size() ? timeline.start(i) : timeline.end(timeline.size() - 1);
+                report.append(" (time ").append(time).append(')');
+            }
+            report.append(": expected ").append(want == null ? "end of order" : want)
+                    .append(", actual ").append(got == null ? "end of order" : got).append('\n');
+            report.append("Expected ").append(expected.size()).append(" segments, actual ").append(actual.size())
+                    .append('\n');
+            return report.toString();
+        }
+        return null;
+    }
+
+    private static String verifyMetrics(ScheduleResult result, JsonStructure.AlgorithmResult expected) {
+        double fairness = result.metrics().fairness();
+        if (expected.fairness != null && Math.abs(fairness - expected.fairness) > FAIRNESS_TOLERANCE) {
+            return "fairness: expected " + expected.fairness + ", actual " + fairness + "\n";
+        }
+        long misses = result.metrics().deadlineMisses();
+        if (expected.deadlineMisses != null && misses != expected.deadlineMisses) {
+            return "deadlineMisses: expected " + expected.deadlineMisses + ", actual " + misses + "\n";
+        }
+        if (expected.stopped != null && result.stopped() != expected.stopped) {
+            return "stopped: expected " + expected.stopped + ", actual " + result.stopped() + "\n";
+        }
+        return verifyMissTimes(result, expected.processResults);
+    }
+
+    private static String verifyMissTimes(ScheduleResult result, List<JsonStructure.ProcessResult> expectedResults) {
+        Map<String, Integer> rows = null;
+        for (JsonStructure.ProcessResult expected : expectedResults) {
+            if (expected.deadlineMissTime == null) continue;
+            if (rows == null) {
+                // First row of each name, as verifyStats matches them
+                rows = new HashMap<>(result.size() * 2);
+                for (int row = 0; row < result.size(); row++) rows.putIfAbsent(result.name(row), row);
+            }
+            Integer row = rows.get(expected.name);
+            if (row == null) return "Missing process " + expected.name + "\n";
+            long actual = result.deadlineMissTime(row);
+            if (actual != expected.deadlineMissTime) {
+                return expected.name + " deadlineMissTime: expected " + expected.deadlineMissTime + ", actual "
+                        + actual + "\n";
+            }
+        }
+        return null;
+    }
+
+    private static String verifyStats(List<Process> actualProcs, List<JsonStructure.ProcessResult> expectedResults) {
+        // First process of each name, like the scan this replaces
+        Map<String, Process> byName = new HashMap<>(actualProcs.size() * 2);
+        for (Process p : actualProcs) byName.putIfAbsent(p.getName(), p);
+
+        for (JsonStructure.ProcessResult expected : expectedResults) {
+            Process actual = byName.get(expected.name);
+            if (actual == null) return "Missing process " + expected.name + "\n";
+
+            // Check values (Exact match required)
+            if (actual.getWaitingTime() != expected.waitingTime
+                    || actual.getTurnaroundTime() != expected.turnaroundTime) {
+                return String.format("%s: expected wait/turnaround %d/%d, actual %d/%d%n", expected.name,
+                        expected.waitingTime, expected.turnaroundTime, actual.getWaitingTime(), actual.getTurnaroundTime());
+            }
+            if (expected.quantumHistory != null) {
+                if (!expected.quantumHistory.equals(actual.getQuantumHistory())) {
+                    return "Quantum History Mismatch for " + expected.name + "\n"
+                            + "Expected: " + expected.quantumHistory + "\n"
+                            + "Actual:   " + actual.getQuantumHistory() + "\n";
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+import com.fasterxml.jackson.databind.JsonNode;
+
+// A workload file loaded without the intermediate JsonStructure objects: the
+// processes go straight into a ProcessTable, the "input" parameters into the
+// fields below. expectedOutput is kept as a tree when the file has one.
+// Immutable, so one instance can be shared by every scheduler and thread: the
+// table is a read-only copy that refuses add, setPriority and reset, and
+// schedulers run on forks of it.
+public class Workload {
+    public final String name;
+    public final ProcessTable processes;
+    public final int contextSwitch;
+    public final int rrQuantum;
+    public final int agingInterval;
+    public final JsonNode expectedOutput;
+
+    public Workload(String name, ProcessTable processes, int contextSwitch, int rrQuantum, int agingInterval,
+                    JsonNode expectedOutput) {
+        this.name = name;
+        this.processes = processes.readOnly();
+        this.contextSwitch = contextSwitch;
+        this.rrQuantum = rrQuantum;
+        this.agingInterval = agingInterval;
+        this.expectedOutput = expectedOutput;
+    }
+}
@@ -0,0 +1,149 @@
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+// Seeded synthetic workloads. The same settings and seed always give the same
+// processes. A workload is either built in memory (generate) or streamed to a
+// JSON file in the JsonStructure layout (writeJson) without holding it in memory.
+public class WorkloadGenerator {
+    public enum Arrivals { POISSON, BURSTY }
+    public enum Distribution { UNIFORM, EXPONENTIAL }
+
+    public long seed = 1;
+    public int processes = 1000;
+
+    // POISSON: exponential gaps with this mean. BURSTY: groups of about
+    // burstGroupSize arrivals close together, with the same long-run rate.
+    public Arrivals arrivals = Arrivals.POISSON;
+    public double meanInterarrival = 5;
+    public int burstGroupSize = 20;
+
+    // UNIFORM draws from [minBurst, maxBurst]; EXPONENTIAL has mean (minBurst + maxBurst) / 2,
+    // clamped to the same range
+    public Distribution burstDistribution = Distribution.UNIFORM;
+    public int minBurst = 1;
+    public int maxBurst = 20;
+
+    public int minPriority = 1;
+    public int maxPriority = 10;
+
+    // AG quanta
+    public int minQuantum = 2;
+    public int maxQuantum = 10;
+
+    // With deadlines, each process must complete by arrival + burst * (1 + s),
+    // s drawn uniformly from [0, deadlineSlack]
+    public boolean deadlines = false;
+    public double deadlineSlack = 3;
+
+    // Written to "input" alongside the processes
+    public int contextSwitch = 1;
+    public int rrQuantum = 4;
+    public int agingInterval = 5;
+
+    private interface ProcessSink {
+        void accept(String name, int arrival, int burst, int priority, int quantum, int deadline) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: WorkloadGenerator <processes> <output.json> [seed]");
+            return;
+        }
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.processes = Integer.parseInt(args[0]);
+        if (args.length > 2) generator.seed = Long.parseLong(args[2]);
+        generator.writeJson(Path.of(args[1]));
+    }
+
+    public Workload generate() {
+        ProcessTable table = new ProcessTable(processes);
+        try {
+            forEachProcess(table::add);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // the table sink does no I/O
+        }
+        return new Workload("Generated workload (seed " + seed + ")", table, contextSwitch, rrQuantum,
+                agingInterval, null);
+    }
+
+    public void writeJson(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writeJson(out);
+        }
+    }
+
+    public void writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("name", "Generated workload (seed " + seed + ")");
+            json.writeObjectFieldStart("input");
+            json.writeNumberField("contextSwitch", contextSwitch);
+            json.writeNumberField("rrQuantum", rrQuantum);
+            json.writeNumberField("agingInterval", agingInterval);
+            json.writeArrayFieldStart("processes");
+            forEachProcess((name, arrival, burst, priority, quantum, deadline) -> {
+                json.writeStartObject();
+                json.writeStringField("name", name);
+                json.writeNumberField("arrival", arrival);
+                json.writeNumberField("burst", burst);
+                json.writeNumberField("priority", priority);
+                json.writeNumberField("quantum", quantum);
+                if (deadline != ProcessTable.NO_DEADLINE) json.writeNumberField("deadline", deadline);
+                json.writeEndObject();
+            });
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    private void forEachProcess(ProcessSink sink) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        double time = 0;
+        int leftInGroup = 0;
+        for (int i = 0; i < processes; i++) {
+            if (arrivals == Arrivals.POISSON) {
+                time += exponential(random, meanInterarrival);
+            } else if (leftInGroup > 0) {
+                leftInGroup--;
+                time += exponential(random, meanInterarrival * 0.1);
+            } else {
+                // Group sizes are geometric with mean burstGroupSize
+                leftInGroup = (int) exponential(random, burstGroupSize);
+                time += exponential(random, meanInterarrival * burstGroupSize * 0.9);
+            }
+            if (time > Integer.MAX_VALUE) throw new IllegalStateException("Arrival times overflow int");
+
+            int burst;
+            if (burstDistribution == Distribution.UNIFORM) {
+                burst = uniform(random, minBurst, maxBurst);
+            } else {
+                double mean = (minBurst + maxBurst) / 2.0;
+                burst = (int) Math.max(minBurst, Math.min(maxBurst, Math.round(exponential(random, mean))));
+            }
+            int priority = uniform(random, minPriority, maxPriority);
+            int quantum = uniform(random, minQuantum, maxQuantum);
+            int deadline = ProcessTable.NO_DEADLINE;
+            if (deadlines) {
+                double due = (int) time + burst * (1 + deadlineSlack * random.nextDouble());
+                if (due >= ProcessTable.NO_DEADLINE) throw new IllegalStateException("Deadlines overflow int");
+                deadline = (int) Math.ceil(due);
+            }
+            sink.accept("P" + (i + 1), (int) time, burst, priority, quantum, deadline);
+        }
+    }
+
+    private static double exponential(SplittableRandom random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    private static int uniform(SplittableRandom random, int min, int max) {
+        return min >= max ? min : random.nextInt(min, max + 1);
+    }
+}
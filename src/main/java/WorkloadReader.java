@@ -0,0 +1,117 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reads workload files (the JsonStructure / JsonAgStructure layout) token by
+// token. Processes are appended to a ProcessTable as they are parsed, so memory
+// stays proportional to the table rather than to the file.
+public class WorkloadReader {
+    // Factory with an ObjectMapper codec, needed to read expectedOutput as a tree
+    static final JsonFactory FACTORY = new ObjectMapper().getFactory();
+
+    public static Workload read(File file) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(file)) {
+            return read(parser);
+        }
+    }
+
+    public static Workload read(InputStream in) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            return read(parser);
+        }
+    }
+
+    private static Workload read(JsonParser parser) throws IOException {
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+        return readObject(parser);
+    }
+
+    // Reads a workload object nested in a larger document, the parser being at its START_OBJECT
+    static Workload readObject(JsonParser parser) throws IOException {
+        String name = null;
+        ProcessTable processes = new ProcessTable();
+        ScheduleParams params = new ScheduleParams(0, 0, 0);
+        JsonNode expectedOutput = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "input":
+                    expect(parser, value, JsonToken.START_OBJECT);
+                    params = readInput(parser, processes);
+                    break;
+                case "expectedOutput":
+                    expectedOutput = parser.readValueAsTree();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new Workload(name, processes, params.contextSwitch, params.rrQuantum, params.agingInterval,
+                expectedOutput);
+    }
+
+    // Reads the processes into the table and returns the run parameters
+    private static ScheduleParams readInput(JsonParser parser, ProcessTable processes) throws IOException {
+        int contextSwitch = 0, rrQuantum = 0, agingInterval = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "contextSwitch":
+                    contextSwitch = parser.getValueAsInt();
+                    break;
+                case "rrQuantum":
+                    rrQuantum = parser.getValueAsInt();
+                    break;
+                case "agingInterval":
+                    agingInterval = parser.getValueAsInt();
+                    break;
+                case "processes":
+                    expect(parser, value, JsonToken.START_ARRAY);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readProcess(parser, processes);
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new ScheduleParams(contextSwitch, rrQuantum, agingInterval);
+    }
+
+    private static void readProcess(JsonParser parser, ProcessTable processes) throws IOException {
+        String name = null;
+        int arrival = 0, burst = 0, priority = 0, quantum = 0, deadline = ProcessTable.NO_DEADLINE;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name": name = parser.getValueAsString(); break;
+                case "arrival": arrival = parser.getValueAsInt(); break;
+                case "burst": burst = parser.getValueAsInt(); break;
+                case "priority": priority = parser.getValueAsInt(); break;
+                case "quantum": quantum = parser.getValueAsInt(); break;
+                case "deadline": if (value != JsonToken.VALUE_NULL) deadline = parser.getValueAsInt(); break;
+                default: parser.skipChildren();
+            }
+        }
+        processes.add(name, arrival, burst, priority, quantum, deadline);
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+}